@@ -0,0 +1,135 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.entity.SequenceIds;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts {@code rows} raw materials per invocation in one transaction, the way Hibernate
+ * does with each id strategy: {@code identity} runs one INSERT per row and reads the
+ * generated key back, {@code sequence} reserves ids from the pooled sequence and sends
+ * the rows in JDBC batches of {@code hibernate.jdbc.batch_size}.
+ * <p>
+ * {@code database} is {@code h2}, {@code h2-postgres} (H2 in PostgreSQL mode, the local
+ * stand-in) or a full JDBC URL, e.g. {@code -p database=jdbc:postgresql://localhost/bench}
+ * with {@code -Dbench.user} and {@code -Dbench.password}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"h2", "h2-postgres"})
+    private String database;
+
+    @Param({"identity", "sequence"})
+    private String strategy;
+
+    @Param({"1000"})
+    private int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private Connection connection;
+    private SequenceIdAllocator idAllocator;
+    private long nextCode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = new SingleConnectionDataSource(url(), System.getProperty("bench.user", "sa"),
+                System.getProperty("bench.password", ""), true);
+        dataSource.setAutoCommit(false);
+        connection = dataSource.getConnection();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        idAllocator = new SequenceIdAllocator(jdbcTemplate);
+
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_materials");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS bench_materials_seq");
+        jdbcTemplate.execute("CREATE TABLE bench_materials (" +
+                (strategy.equals("identity") ? "id BIGINT GENERATED BY DEFAULT AS IDENTITY" : "id BIGINT") +
+                " PRIMARY KEY, code VARCHAR(64) NOT NULL UNIQUE, name VARCHAR(255) NOT NULL," +
+                " stock_quantity NUMERIC(38, 2) NOT NULL, unit VARCHAR(16) NOT NULL)");
+        jdbcTemplate.execute("CREATE SEQUENCE bench_materials_seq START WITH 1 INCREMENT BY "
+                + SequenceIds.ALLOCATION_SIZE);
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE bench_materials");
+            statement.execute("DROP SEQUENCE bench_materials_seq");
+        }
+        connection.commit();
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public long insert() throws SQLException {
+        long last = strategy.equals("identity") ? insertWithIdentity() : insertWithSequence();
+        connection.commit();
+        return last;
+    }
+
+    private long insertWithIdentity() throws SQLException {
+        long last = 0;
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO bench_materials (code, name, stock_quantity, unit) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+
+            for (int i = 0; i < rows; i++) {
+                bind(ps, 1);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    last = keys.getLong(1);
+                }
+            }
+        }
+        return last;
+    }
+
+    private long insertWithSequence() throws SQLException {
+        long[] ids = idAllocator.allocate("bench_materials_seq", rows);
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO bench_materials (id, code, name, stock_quantity, unit) VALUES (?, ?, ?, ?, ?)")) {
+
+            for (int i = 0; i < rows; i++) {
+                ps.setLong(1, ids[i]);
+                bind(ps, 2);
+                ps.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) ps.executeBatch();
+            }
+            ps.executeBatch();
+        }
+        return ids[rows - 1];
+    }
+
+    private void bind(PreparedStatement ps, int first) throws SQLException {
+        long code = nextCode++;
+        ps.setString(first, "RM" + code);
+        ps.setString(first + 1, "Material " + code);
+        ps.setBigDecimal(first + 2, BigDecimal.valueOf(code % 1000, 2));
+        ps.setString(first + 3, "kg");
+    }
+
+    private String url() {
+        return switch (database) {
+            case "h2" -> "jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1";
+            case "h2-postgres" -> "jdbc:h2:mem:insert-bench-pg;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+            default -> database;
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.projedata.factory.api.service;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json) benchmark by benchmark and exits with
+ * status 1 when any score got worse than the baseline by more than the threshold and
+ * by more than the combined error margins.
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.10;
+
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+        int regressions = 0;
+
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+
+            double change = (now.score() - before.score()) / before.score();
+            double worsening = now.higherIsBetter() ? -change : change;
+            boolean regression = worsening > threshold
+                    && Math.abs(now.score() - before.score()) > now.error() + before.error();
+            if (regression) regressions++;
+
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s %s%n", entry.getKey(), before.score(), now.score(),
+                    change * 100, now.unit(), regression ? "REGRESSION" : "");
+        }
+
+        baseline.keySet().stream()
+                .filter(key -> !current.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s %14.3f %14s %9s%n", key, baseline.get(key).score(), "-", "missing"));
+
+        System.out.printf("%n%d regression(s) above %.0f%%%n", regressions, threshold * 100);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    private static Map<String, Result> read(File file) {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : JsonMapper.builder().build().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            JsonNode paramsNode = run.get("params");
+            if (paramsNode != null) {
+                paramsNode.properties().forEach(param -> params.put(param.getKey(), param.getValue().asString()));
+            }
+
+            String benchmark = run.get("benchmark").asString();
+            String key = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1)
+                    + (params.isEmpty() ? "" : " " + params);
+            JsonNode metric = run.get("primaryMetric");
+
+            results.put(key, new Result(
+                    metric.get("score").asDouble(),
+                    metric.get("scoreError").isNumber() ? metric.get("scoreError").asDouble() : 0,
+                    metric.get("scoreUnit").asString(),
+                    "thrpt".equals(run.get("mode").asString())
+            ));
+        }
+        return results;
+    }
+
+    private record Result(double score, double error, String unit, boolean higherIsBetter) {}
+}
@@ -0,0 +1,123 @@
+package com.projedata.factory.api.service;
+
+import com.opencsv.CSVReader;
+import com.projedata.factory.api.config.ImportConfig;
+import com.projedata.factory.api.config.ImportProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParsingBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private byte[] file;
+    private List<String[]> lines;
+    private CsvImportService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = SyntheticData.rawMaterialCsv(ROWS, 0.01);
+        service = newService(1, null);
+
+        lines = new ArrayList<>(ROWS);
+        try (CSVReader reader = new CSVReader(service.buildReader(new ByteArrayInputStream(file)))) {
+            reader.skip(1);
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                lines.add(line);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseLine(Blackhole blackhole) {
+        for (int i = 0; i < lines.size(); i++) {
+            try {
+                blackhole.consume(service.parseLine(lines.get(i), i + 2));
+            } catch (IllegalArgumentException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void buildReader(Blackhole blackhole) throws Exception {
+        try (CSVReader reader = new CSVReader(service.buildReader(new ByteArrayInputStream(file)))) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                blackhole.consume(line);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readRows(Pipeline pipeline, Blackhole blackhole) {
+        pipeline.service.readRows(new ByteArrayInputStream(file), new BlackholeProgress(blackhole), blackhole::consume);
+    }
+
+    private static ImportProperties properties(int workers) {
+        return new ImportProperties(1000, 10_000, 4096, ROWS + 1L, 1 << 20,
+                new ImportProperties.Parsing(workers, 500),
+                new ImportProperties.Jobs(1, 1, 100, Duration.ofHours(1)));
+    }
+
+    private static CsvImportService newService(int workers, ExecutorService parsers) {
+        return new CsvImportService(null, null, null, properties(workers), null, new SimpleMeterRegistry(), null, parsers);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pipeline {
+
+        @Param({"1", "2", "4", "8"})
+        private int workers;
+
+        private ExecutorService parsers;
+        private CsvImportService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            parsers = new ImportConfig().csvParseExecutor(properties(workers));
+            service = newService(workers, parsers);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            parsers.shutdownNow();
+        }
+    }
+
+    private record BlackholeProgress(Blackhole blackhole) implements ImportProgress {
+
+        @Override
+        public void imported() {
+            blackhole.consume(true);
+        }
+
+        @Override
+        public void skipped(String error) {
+            blackhole.consume(error);
+        }
+
+        @Override
+        public void failed(String error) {
+            blackhole.consume(error);
+        }
+    }
+}
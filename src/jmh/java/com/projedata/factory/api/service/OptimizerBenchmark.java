@@ -0,0 +1,210 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.dto.ScheduleRequest;
+import com.projedata.factory.api.dto.ScheduleResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import com.projedata.factory.api.repository.StockLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimizerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int products;
+
+    @Param({"2", "8", "32"})
+    private int fanOut;
+
+    @Param({"500"})
+    private int rawMaterials;
+
+    private List<Product> catalog;
+    private CompiledCatalog compiled;
+    private CompiledCatalog[] restocked;
+    private int restock;
+    private GreedyOptimizer greedy;
+    private ProductionOptimizationService service;
+    private PortfolioOptimizer portfolio;
+    private ProductionScheduleService scheduleService;
+    private ScheduleRequest weeklyReceipts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<RawMaterial> materials = SyntheticData.rawMaterials(rawMaterials);
+        catalog = SyntheticData.products(products, fanOut, materials);
+        compiled = CompiledCatalog.compile(catalog);
+        greedy = new GreedyOptimizer();
+
+        long material = compiled.materialId(0);
+        BigDecimal stock = compiled.toQuantity(compiled.stock(0));
+        restocked = new CompiledCatalog[]{
+                compiled.withStock(Map.of(material, stock.add(BigDecimal.TEN))).orElseThrow(),
+                compiled.withStock(Map.of(material, stock)).orElseThrow()
+        };
+
+        OptimizerProperties properties = properties(Duration.ofSeconds(30));
+        ProductRepository repository = repository(catalog);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new ProductionOptimizationService(new BomSnapshotCache(repository, meterRegistry), List.of(greedy),
+                properties, meterRegistry);
+        service.optimize();
+
+        portfolio = new PortfolioOptimizer(properties, meterRegistry);
+
+        RawMaterialJdbcRepository rawMaterialRepository = Mockito.mock(RawMaterialJdbcRepository.class);
+        Mockito.when(rawMaterialRepository.findExistingIds(Mockito.anyCollection()))
+                .thenAnswer(call -> new HashSet<>(call.getArgument(0)));
+        scheduleService = new ProductionScheduleService(new BomSnapshotCache(repository, meterRegistry), List.of(greedy),
+                rawMaterialRepository, properties, meterRegistry);
+        weeklyReceipts = weeklyReceipts(materials, 52);
+    }
+
+    private static OptimizerProperties properties(Duration maxStale) {
+        return new OptimizerProperties(
+                new OptimizerProperties.Exact(Duration.ofSeconds(2), 100_000),
+                new OptimizerProperties.Scenarios(0, 100),
+                new OptimizerProperties.Portfolio(Duration.ofMillis(200), 0, 32),
+                new OptimizerProperties.PlanCache(maxStale),
+                new OptimizerProperties.Schedule(104));
+    }
+
+    private static ProductRepository repository(List<Product> catalog) {
+        ProductRepository repository = Mockito.mock(ProductRepository.class);
+        Mockito.when(repository.findAllWithCompositions()).thenReturn(catalog);
+        return repository;
+    }
+
+    // every week a tenth of the materials receive up to one more initial stock's worth
+    private static ScheduleRequest weeklyReceipts(List<RawMaterial> materials, int weeks) {
+        Random random = new Random(weeks);
+        List<ScheduleRequest.Period> periods = new ArrayList<>(weeks);
+        for (int week = 1; week <= weeks; week++) {
+            List<ScheduleRequest.Receipt> receipts = new ArrayList<>();
+            for (RawMaterial material : materials) {
+                if (random.nextInt(10) > 0) continue;
+                receipts.add(new ScheduleRequest.Receipt(material.getId(), null,
+                        material.getStockQuantity().multiply(BigDecimal.valueOf(random.nextDouble()))
+                                .setScale(material.getStockQuantity().scale(), RoundingMode.DOWN)));
+            }
+            periods.add(new ScheduleRequest.Period("week " + week, receipts));
+        }
+        return new ScheduleRequest(periods);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        portfolio.shutdown();
+        service.shutdown();
+    }
+
+    /**
+     * A stock patch before every call re-issues the snapshot, so the plan cache misses and the
+     * solve is measured — for greedy that is the incremental replan a real stock change triggers.
+     */
+    @Benchmark
+    public ProductionSuggestionResponse optimize(Uncached uncached) {
+        return uncached.service.optimize();
+    }
+
+    /** Served from the cached plan: the snapshot does not change between invocations. */
+    @Benchmark
+    public ProductionSuggestionResponse optimizeCached() {
+        return service.optimize();
+    }
+
+    @Benchmark
+    public ProductionSuggestionResponse fullPlan() {
+        return new GreedyOptimizer().optimize(compiled);
+    }
+
+    /** BigInteger path used when scaled quantities overflow a long, on the same catalog as fullPlan. */
+    @Benchmark
+    public long[] checkedPlan() {
+        return CheckedGreedy.plan(compiled);
+    }
+
+    @Benchmark
+    public ProductionSuggestionResponse replanSingleMaterial() {
+        restock ^= 1;
+        return greedy.optimize(restocked[restock]);
+    }
+
+    @Benchmark
+    public ProductionSuggestionResponse portfolioPlan() {
+        return portfolio.optimize(compiled);
+    }
+
+    /** Horizon solve plus the period-by-period placement, with the snapshot already built. */
+    @Benchmark
+    public ScheduleResponse schedule52Weeks() {
+        return scheduleService.schedule(OptimizationStrategy.GREEDY, weeklyReceipts);
+    }
+
+    @Benchmark
+    public CompiledCatalog compileCatalog() {
+        return CompiledCatalog.compile(catalog);
+    }
+
+    @Benchmark
+    public void calculateMaxProducible(Blackhole blackhole) {
+        long[] stock = compiled.stockCopy();
+        for (int product = 0; product < compiled.productCount(); product++) {
+            blackhole.consume(compiled.maxProducible(product, stock));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Uncached {
+
+        private BomSnapshotCache snapshots;
+        private ProductionOptimizationService service;
+        private long material;
+        private BigDecimal stock;
+        private long version;
+
+        @Setup(Level.Trial)
+        public void setUp(OptimizerBenchmark benchmark) {
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            snapshots = new BomSnapshotCache(repository(benchmark.catalog), meterRegistry);
+            service = new ProductionOptimizationService(snapshots, List.of(new GreedyOptimizer()),
+                    properties(Duration.ZERO), meterRegistry);
+            service.optimize();
+
+            material = benchmark.compiled.materialId(0);
+            stock = benchmark.compiled.toQuantity(benchmark.compiled.stock(0));
+        }
+
+        // same quantity under a newer row version: the snapshot is re-issued, the catalog is unchanged
+        @Setup(Level.Invocation)
+        public void bumpSnapshot() {
+            snapshots.onStockChanged(new StockChangedEvent(Map.of(material, new StockLevel(stock, ++version))));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            service.shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.entity.Product;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int products;
+
+    @Param({"8"})
+    private int fanOut;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private List<Product> catalog;
+    private ProductionSuggestionResponse suggestion;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = SyntheticData.products(products, fanOut, SyntheticData.rawMaterials(500));
+        suggestion = new GreedyOptimizer().optimize(CompiledCatalog.compile(catalog));
+    }
+
+    @Benchmark
+    public byte[] productGraph() {
+        return mapper.writeValueAsBytes(catalog);
+    }
+
+    @Benchmark
+    public byte[] productionSuggestion() {
+        return mapper.writeValueAsBytes(suggestion);
+    }
+}
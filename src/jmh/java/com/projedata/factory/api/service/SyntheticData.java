@@ -0,0 +1,76 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generators for the benchmarks. The same seed always yields the same
+ * catalog or file, so results from different runs and branches are comparable.
+ */
+final class SyntheticData {
+
+    private static final long SEED = 20240601L;
+
+    private SyntheticData() {
+    }
+
+    static List<RawMaterial> rawMaterials(int count) {
+        Random random = new Random(SEED);
+        List<RawMaterial> materials = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            materials.add(RawMaterial.builder()
+                    .id(id)
+                    .code("RM" + id)
+                    .name("Raw material " + id)
+                    .unit("kg")
+                    .stockQuantity(BigDecimal.valueOf(random.nextInt(10_000_000), 2))
+                    .build());
+        }
+        return materials;
+    }
+
+    static List<Product> products(int count, int fanOut, List<RawMaterial> materials) {
+        Random random = new Random(SEED + count * 31L + fanOut);
+        List<Product> products = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Product product = Product.builder()
+                    .id(id)
+                    .code("P" + id)
+                    .name("Product " + id)
+                    .saleValue(BigDecimal.valueOf(100 + random.nextInt(100_000), 2))
+                    .compositions(new ArrayList<>())
+                    .build();
+
+            int size = 1 + random.nextInt(fanOut);
+            for (int k = 0; k < size; k++) {
+                product.getCompositions().add(ProductComposition.builder()
+                        .id(id * fanOut + k)
+                        .product(product)
+                        .rawMaterial(materials.get(random.nextInt(materials.size())))
+                        .requiredQuantity(BigDecimal.valueOf(1 + random.nextInt(5_000), 2))
+                        .build());
+            }
+            products.add(product);
+        }
+        return products;
+    }
+
+    static byte[] rawMaterialCsv(int rows, double invalidRatio) {
+        Random random = new Random(SEED + rows);
+        StringBuilder csv = new StringBuilder(rows * 40).append("code,name,stockQuantity,unit\n");
+        for (int i = 0; i < rows; i++) {
+            String quantity = random.nextDouble() < invalidRatio
+                    ? "n/a"
+                    : random.nextInt(1_000_000) + "." + random.nextInt(1000);
+            csv.append("RM").append(random.nextInt(rows)).append(", Raw material ").append(i).append(" ,")
+                    .append(quantity).append(",kg\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
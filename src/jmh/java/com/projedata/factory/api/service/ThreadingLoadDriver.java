@@ -0,0 +1,257 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.Application;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.ProductJdbcRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionOperations;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boots the application once per threading mode and drives the same mixed load against each:
+ * {@code importers} clients uploading a CSV slowly to {@code /import/batch} (each upload holds
+ * a request thread while its multipart body trickles in), {@code exporters} reading the product
+ * NDJSON dump slowly, and {@code pollers} calling {@code optimize()} back to back. The table
+ * compares the optimize() latency the pollers saw, plus completed imports and exports, pinned
+ * virtual threads and the longest wait for a database permit.
+ * <p>
+ * Arguments are {@code key=value}: {@code modes} ({@code platform,virtual}), {@code duration}
+ * and {@code warmup} in seconds, {@code importers}, {@code exporters}, {@code pollers},
+ * {@code products}, {@code tomcatThreads} (platform mode only; the default of 200 hides the
+ * effect at laptop-sized client counts).
+ */
+public class ThreadingLoadDriver {
+
+    private static final String CRLF = "\r\n";
+    private static final String BOUNDARY = "load-driver-boundary";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "modes", "platform,virtual",
+                "duration", "30",
+                "warmup", "5",
+                "importers", "24",
+                "exporters", "2",
+                "pollers", "8",
+                "products", "5000",
+                "tomcatThreads", "16"));
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            options.put(pair[0], pair[1]);
+        }
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String mode : options.get("modes").split(",")) {
+            results.put(mode, run(mode.trim(), options));
+        }
+
+        System.out.printf("%n%-10s %9s %9s %9s %9s %9s %9s %8s %8s %8s %10s%n", "mode", "optimize", "req/s",
+                "p50 ms", "p95 ms", "p99 ms", "max ms", "errors", "imports", "exports", "pinned");
+        results.forEach((mode, r) -> System.out.printf("%-10s %9d %9.1f %9.1f %9.1f %9.1f %9.1f %8d %8d %8d %10s%n",
+                mode, r.latencies.length, r.latencies.length / r.seconds, r.percentile(0.50), r.percentile(0.95),
+                r.percentile(0.99), r.percentile(1.0), r.errors, r.imports, r.exports, r.pinned));
+        results.forEach((mode, r) -> {
+            if (r.permitWait != null) System.out.printf("%s: longest database permit wait %s%n", mode, r.permitWait);
+        });
+    }
+
+    private static Result run(String mode, Map<String, String> options) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        System.out.printf("%n=== %s threads ===%n", mode);
+
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+                "--server.port=0",
+                "--spring.profiles.active=dev" + (virtual ? ",virtual-threads" : ""),
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--server.tomcat.threads.max=" + options.get("tomcatThreads"),
+                "--logging.level.root=WARN");
+        try {
+            seed(context, Integer.parseInt(options.get("products")));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + "/api/v1/"), options,
+                    context.getBean(MeterRegistry.class));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(ConfigurableApplicationContext context, int productCount) {
+        List<RawMaterial> materials = SyntheticData.rawMaterials(Math.max(100, productCount / 5));
+        List<Product> products = SyntheticData.products(productCount, 8, materials);
+
+        context.getBean(TransactionOperations.class).executeWithoutResult(status -> {
+            context.getBean(RawMaterialJdbcRepository.class).batchInsert(materials);
+            ProductJdbcRepository productJdbcRepository = context.getBean(ProductJdbcRepository.class);
+            productJdbcRepository.batchInsert(products);
+            productJdbcRepository.replaceCompositions(products);
+        });
+    }
+
+    private static Result drive(URI api, Map<String, String> options, MeterRegistry meterRegistry)
+            throws InterruptedException {
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+        byte[] upload = multipart(SyntheticData.rawMaterialCsv(2_000, 0.0));
+
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+        LongAdder imports = new LongAdder();
+        LongAdder exports = new LongAdder();
+
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            // creates the file's codes up front, so concurrent uploads only update existing rows
+            http.send(importRequest(api, upload), HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new IllegalStateException("Initial import failed", e);
+        }
+
+        long startedAt = System.nanoTime();
+        long measureFrom = startedAt + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clients)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+
+            for (int i = 0; i < Integer.parseInt(options.get("importers")); i++) {
+                clients.submit(() -> loop(stopAt, errors, () -> {
+                    HttpResponse<Void> response = http.send(importRequest(api, upload),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 300) throw new IOException("import returned " + response.statusCode());
+                    if (System.nanoTime() > measureFrom) imports.increment();
+                }));
+            }
+
+            for (int i = 0; i < Integer.parseInt(options.get("exporters")); i++) {
+                clients.submit(() -> loop(stopAt, errors, () -> {
+                    HttpResponse<InputStream> response = http.send(
+                            HttpRequest.newBuilder(api.resolve("products/export?format=NDJSON")).build(),
+                            HttpResponse.BodyHandlers.ofInputStream());
+                    try (InputStream body = response.body()) {
+                        byte[] buffer = new byte[8192];
+                        while (body.read(buffer) >= 0) {
+                            Thread.sleep(5);
+                        }
+                    }
+                    if (System.nanoTime() > measureFrom) exports.increment();
+                }));
+            }
+
+            for (int i = 0; i < Integer.parseInt(options.get("pollers")); i++) {
+                clients.submit(() -> loop(stopAt, errors, () -> {
+                    long sentAt = System.nanoTime();
+                    HttpResponse<Void> response = http.send(
+                            HttpRequest.newBuilder(api.resolve("production/optimize")).build(),
+                            HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) throw new IOException("optimize returned " + response.statusCode());
+                    if (sentAt > measureFrom) latencies.add(System.nanoTime() - sentAt);
+                }));
+            }
+
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(stopAt - System.nanoTime()));
+            clients.shutdownNow();
+        }
+
+        Timer pinned = meterRegistry.find("factory.virtual.threads.pinned").timer();
+        Timer permitWait = meterRegistry.find("factory.db.permit.wait").tag("result", "acquired").timer();
+        return new Result(
+                latencies.stream().mapToLong(Long::longValue).sorted().toArray(),
+                durationNanos / 1e9,
+                errors.sum(), imports.sum(), exports.sum(),
+                pinned == null ? "-" : String.valueOf(pinned.count()),
+                permitWait == null ? null : Duration.ofNanos((long) permitWait.max(TimeUnit.NANOSECONDS)));
+    }
+
+    private static void loop(long stopAt, LongAdder errors, Call call) {
+        while (System.nanoTime() < stopAt && !Thread.currentThread().isInterrupted()) {
+            try {
+                call.run();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                if (System.nanoTime() < stopAt) errors.increment();
+            }
+        }
+    }
+
+    private static HttpRequest importRequest(URI api, byte[] upload) {
+        return HttpRequest.newBuilder(api.resolve("raw-materials/import/batch"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new TrickleInputStream(upload)))
+                .build();
+    }
+
+    private static byte[] multipart(byte[] csv) {
+        byte[] head = ("--" + BOUNDARY + CRLF
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"load.csv\"" + CRLF
+                + "Content-Type: text/csv" + CRLF + CRLF).getBytes(StandardCharsets.UTF_8);
+        byte[] tail = (CRLF + "--" + BOUNDARY + "--" + CRLF).getBytes(StandardCharsets.UTF_8);
+
+        byte[] body = Arrays.copyOf(head, head.length + csv.length + tail.length);
+        System.arraycopy(csv, 0, body, head.length, csv.length);
+        System.arraycopy(tail, 0, body, head.length + csv.length, tail.length);
+        return body;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    /** Hands out 1 KiB every 20 ms, like an upload over a slow link. */
+    private static final class TrickleInputStream extends ByteArrayInputStream {
+
+        TrickleInputStream(byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+            return super.read(b, off, Math.min(len, 1024));
+        }
+    }
+
+    private record Result(long[] latencies, double seconds, long errors, long imports, long exports,
+                          String pinned, Duration permitWait) {
+
+        double percentile(double p) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.clamp(index, 0, latencies.length - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.projedata.factory.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most {@code permits} connections be checked out at once. With virtual threads there
+ * is no request-thread limit in front of the pool, so a burst of thousands of requests would
+ * otherwise all wait inside the pool's handoff; here they park in a fair queue, in arrival
+ * order, and give up after {@code acquireTimeout}. The permit is returned when the connection
+ * is closed.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource implements MeterBinder {
+
+    private final int permits;
+    private final Semaphore semaphore;
+    private final Duration acquireTimeout;
+
+    private volatile Timer acquired;
+    private volatile Timer timedOut;
+
+    public ConcurrencyLimitingDataSource(DataSource target, int permits, Duration acquireTimeout) {
+        super(target);
+        this.permits = permits;
+        this.semaphore = new Semaphore(permits, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return limited(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    public int permits() {
+        return permits;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        acquired = registry.timer("factory.db.permit.wait", "result", "acquired");
+        timedOut = registry.timer("factory.db.permit.wait", "result", "timeout");
+        Gauge.builder("factory.db.permit.waiting", semaphore, Semaphore::getQueueLength)
+                .description("Threads waiting for a database permit")
+                .register(registry);
+        Gauge.builder("factory.db.permit.in.use", semaphore, s -> permits - s.availablePermits())
+                .description("Database permits currently held")
+                .register(registry);
+    }
+
+    private void acquire() throws SQLException {
+        long startedAt = System.nanoTime();
+        boolean granted;
+        try {
+            granted = semaphore.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database permit", e);
+        }
+
+        Timer timer = granted ? acquired : timedOut;
+        if (timer != null) timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        if (!granted) {
+            throw new SQLTransientConnectionException("No database permit available after " + acquireTimeout.toMillis()
+                    + " ms (" + permits + " permits, " + semaphore.getQueueLength() + " waiting)");
+        }
+    }
+
+    private Connection limited(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) semaphore.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,11 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "factory.export")
+public record ExportProperties(
+        @DefaultValue("1000")
+        int fetchSize
+) {
+}
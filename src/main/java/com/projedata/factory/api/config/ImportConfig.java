@@ -0,0 +1,21 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CSV parsing is CPU-bound, so every import shares one pool sized by
+ * {@code factory.import.parsing.workers} instead of starting threads per file.
+ */
+@Configuration
+public class ImportConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService csvParseExecutor(ImportProperties properties) {
+        return Executors.newFixedThreadPool(properties.parsing().resolvedWorkers(),
+                Thread.ofPlatform().name("csv-parse-", 0).daemon().factory());
+    }
+}
@@ -0,0 +1,62 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "factory.import")
+public record ImportProperties(
+        @DefaultValue("1000")
+        int chunkSize,
+
+        @DefaultValue("10000")
+        int maxChunkSize,
+
+        @DefaultValue("4096")
+        int maxLineLength,
+
+        @DefaultValue("5000000")
+        long maxRows,
+
+        @DefaultValue("1048576")
+        int maxDocumentLength,
+
+        @DefaultValue
+        Parsing parsing,
+
+        @DefaultValue
+        Jobs jobs
+) {
+
+    public int resolveChunkSize(Integer requestedChunkSize) {
+        return Math.clamp(requestedChunkSize == null ? chunkSize : requestedChunkSize, 1, maxChunkSize);
+    }
+
+    public record Parsing(
+            @DefaultValue("0")
+            int workers,
+
+            @DefaultValue("500")
+            int rowsPerTask
+    ) {
+
+        public int resolvedWorkers() {
+            return workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    public record Jobs(
+            @DefaultValue("2")
+            int maxConcurrent,
+
+            @DefaultValue("8")
+            int queueDepth,
+
+            @DefaultValue("100")
+            int maxErrors,
+
+            @DefaultValue("1h")
+            Duration retention
+    ) {}
+}
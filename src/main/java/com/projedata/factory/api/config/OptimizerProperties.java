@@ -0,0 +1,75 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "factory.optimizer")
+public record OptimizerProperties(
+        @DefaultValue
+        Exact exact,
+
+        @DefaultValue
+        Scenarios scenarios,
+
+        @DefaultValue
+        Portfolio portfolio,
+
+        @DefaultValue
+        PlanCache planCache,
+
+        @DefaultValue
+        Schedule schedule
+) {
+
+    public record Exact(
+            @DefaultValue("2s")
+            Duration timeBudget,
+
+            @DefaultValue("100000")
+            int nodeBudget
+    ) {}
+
+    public record Scenarios(
+            // 0 = one worker per core
+            @DefaultValue("0")
+            int parallelism,
+
+            @DefaultValue("100")
+            int maxPerRequest
+    ) {
+
+        public int resolvedParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    public record Portfolio(
+            @DefaultValue("200ms")
+            Duration timeBudget,
+
+            // 0 = one worker per core
+            @DefaultValue("0")
+            int parallelism,
+
+            @DefaultValue("32")
+            int restarts
+    ) {
+
+        public int resolvedParallelism() {
+            return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    public record PlanCache(
+            // how long an out-of-date plan may still be served while it is recomputed; 0 = always wait
+            @DefaultValue("0s")
+            Duration maxStale
+    ) {}
+
+    public record Schedule(
+            @DefaultValue("104")
+            int maxPeriods
+    ) {}
+}
@@ -0,0 +1,18 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "factory.pagination")
+public record PaginationProperties(
+        @DefaultValue("50")
+        int defaultSize,
+
+        @DefaultValue("500")
+        int maxSize
+) {
+
+    public int resolve(Integer requestedSize) {
+        return Math.clamp(requestedSize == null ? defaultSize : requestedSize, 1, maxSize);
+    }
+}
@@ -0,0 +1,76 @@
+package com.projedata.factory.api.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.RawMaterialRepository;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache backed by an in-process Caffeine JCache manager. Every region is
+ * created here with its size and TTL, and Hibernate is configured to fail on any region that is
+ * not, so a new {@code @Cache} mapping or query cache region has to be listed below.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    static final List<String> ENTITY_REGIONS = List.of(
+            RawMaterial.class.getName(),
+            Product.class.getName(),
+            Product.class.getName() + ".compositions",
+            ProductComposition.class.getName());
+
+    static final List<String> QUERY_REGIONS = List.of(
+            RawMaterialRepository.QUERY_REGION,
+            ProductRepository.QUERY_REGION);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        ENTITY_REGIONS.forEach(region -> create(cacheManager, region, bounded(properties.entities())));
+        QUERY_REGIONS.forEach(region -> create(cacheManager, region, bounded(properties.queries())));
+        create(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded(properties.queries()));
+        // Update timestamps decide whether cached query results are stale; evicting them early would serve stale results.
+        create(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, unbounded());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+    }
+
+    private static void create(CacheManager cacheManager, String region, CaffeineConfiguration<Object, Object> config) {
+        if (cacheManager.getCache(region) != null) {
+            cacheManager.destroyCache(region);
+        }
+        cacheManager.createCache(region, config);
+    }
+
+    private static CaffeineConfiguration<Object, Object> bounded(SecondLevelCacheProperties.Region region) {
+        CaffeineConfiguration<Object, Object> config = unbounded();
+        config.setMaximumSize(OptionalLong.of(region.maxEntries()));
+        config.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+        return config;
+    }
+
+    private static CaffeineConfiguration<Object, Object> unbounded() {
+        CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+        config.setStatisticsEnabled(true);
+        return config;
+    }
+}
@@ -0,0 +1,25 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "factory.cache")
+public record SecondLevelCacheProperties(
+        @DefaultValue
+        Region entities,
+
+        @DefaultValue
+        Region queries
+) {
+
+    public record Region(
+            @DefaultValue("10000")
+            long maxEntries,
+
+            @DefaultValue("10m")
+            Duration ttl
+    ) {
+    }
+}
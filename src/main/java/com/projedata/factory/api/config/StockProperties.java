@@ -0,0 +1,24 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "factory.stock")
+public record StockProperties(
+        @DefaultValue("500")
+        int batchSize,
+
+        @DefaultValue
+        Retry retry
+) {
+
+    public record Retry(
+            @DefaultValue("4")
+            int maxAttempts,
+
+            @DefaultValue("20ms")
+            Duration backoff
+    ) {}
+}
@@ -0,0 +1,60 @@
+package com.projedata.factory.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Active when {@code spring.threads.virtual.enabled} is set (the {@code virtual-threads} profile):
+ * Spring Boot then runs Tomcat requests, {@code @Async} and MVC async work on virtual threads,
+ * and this adds the pieces that mode needs — a database permit limiter in front of the pool
+ * and a JFR-based report of pinned virtual threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    static BeanPostProcessor databaseConcurrencyLimiter(ObjectProvider<VirtualThreadProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+
+                VirtualThreadProperties.Database database = properties.getObject().database();
+                int permits = database.maxConcurrent() > 0 ? database.maxConcurrent() : poolSize(dataSource);
+                if (permits <= 0) {
+                    log.warn("Not limiting DataSource '{}': pool size unknown, set factory.virtual-threads.database.max-concurrent",
+                            beanName);
+                    return bean;
+                }
+
+                log.info("Limiting DataSource '{}' to {} concurrent connections", beanName, permits);
+                return new ConcurrencyLimitingDataSource(dataSource, permits, database.acquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnBooleanProperty(name = "factory.virtual-threads.pinning.enabled", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(VirtualThreadProperties properties,
+                                                                   MeterRegistry meterRegistry) {
+        return new VirtualThreadPinningMonitor(properties.pinning(), meterRegistry);
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 0;
+    }
+}
@@ -0,0 +1,84 @@
+package com.projedata.factory.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event, emitted when a virtual thread blocks
+ * while it cannot unmount from its carrier (inside {@code synchronized} or a native frame, as
+ * some JDBC drivers do). Each event is timed in {@code factory.virtual.threads.pinned}; the
+ * first occurrence of each call site is logged with its stack, repeats only at debug.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final VirtualThreadProperties.Pinning properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private volatile Timer pinned;
+    private volatile RecordingStream stream;
+
+    @Override
+    public void start() {
+        pinned = meterRegistry.timer("factory.virtual.threads.pinned");
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(properties.threshold()).withStackTrace();
+        recording.onEvent(EVENT, this::report);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual thread pinning above {} ms", properties.threshold().toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) recording.close();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void report(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        List<String> frames = frames(event.getStackTrace());
+        String site = frames.isEmpty() ? "unknown" : frames.getFirst();
+        String stack = frames.stream().collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), stack);
+        } else {
+            log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private List<String> frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return List.of();
+
+        return stackTrace.getFrames().stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(properties.stackDepth())
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.projedata.factory.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "factory.virtual-threads")
+public record VirtualThreadProperties(
+        @DefaultValue
+        Database database,
+
+        @DefaultValue
+        Pinning pinning
+) {
+
+    public record Database(
+            // 0 = the connection pool's maximum size
+            @DefaultValue("0")
+            int maxConcurrent,
+
+            @DefaultValue("30s")
+            Duration acquireTimeout
+    ) {
+    }
+
+    public record Pinning(
+            @DefaultValue("true")
+            boolean enabled,
+
+            @DefaultValue("20ms")
+            Duration threshold,
+
+            @DefaultValue("12")
+            int stackDepth
+    ) {
+    }
+}
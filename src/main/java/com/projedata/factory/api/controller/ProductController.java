@@ -1,14 +1,27 @@
 package com.projedata.factory.api.controller;
 
+import com.projedata.factory.api.dto.CsvImportResponse;
+import com.projedata.factory.api.dto.PageResponse;
 import com.projedata.factory.api.dto.ProductRequest;
+import com.projedata.factory.api.dto.ProductResponse;
 import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.service.CatalogExportService;
+import com.projedata.factory.api.service.ExportFormat;
+import com.projedata.factory.api.service.ProductImportService;
 import com.projedata.factory.api.service.ProductService;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -16,10 +29,52 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService service;
+    private final CatalogExportService exportService;
+    private final ProductImportService importService;
 
     @GetMapping
-    public ResponseEntity<@NonNull List<Product>> getAll() {
-        return ResponseEntity.ok(service.findAll());
+    public ResponseEntity<@NonNull PageResponse<ProductResponse>> getAll(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String expand) {
+
+        boolean expandCompositions = "compositions".equalsIgnoreCase(expand);
+        return ResponseEntity.ok(service.findPage(cursor, size, expandCompositions));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<@NonNull StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("products." + format.extension())
+                        .build()
+                        .toString())
+                .body(output -> exportService.writeProducts(format, output));
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<@NonNull CsvImportResponse> importProducts(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(required = false) Integer chunkSize) throws IOException {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CsvImportResponse response;
+        try (InputStream input = file.getInputStream()) {
+            response = importService.importProducts(input, format, chunkSize);
+        }
+
+        HttpStatus status = response.hasErrors()
+                ? HttpStatus.MULTI_STATUS
+                : HttpStatus.OK;
+
+        return ResponseEntity.status(status).body(response);
     }
 
     @GetMapping("/{id}")
@@ -1,12 +1,28 @@
 package com.projedata.factory.api.controller;
 
+import com.projedata.factory.api.dto.BomSnapshotStatsResponse;
+import com.projedata.factory.api.dto.ProductionPlanDiffResponse;
 import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.dto.ScenarioRequest;
+import com.projedata.factory.api.dto.ScenarioResponse;
+import com.projedata.factory.api.dto.ScheduleRequest;
+import com.projedata.factory.api.dto.ScheduleResponse;
+import com.projedata.factory.api.service.BomSnapshotCache;
+import com.projedata.factory.api.service.OptimizationStrategy;
 import com.projedata.factory.api.service.ProductionOptimizationService;
+import com.projedata.factory.api.service.ProductionPlan;
+import com.projedata.factory.api.service.ProductionScenarioService;
+import com.projedata.factory.api.service.ProductionScheduleService;
+import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -15,9 +31,45 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProductionController {
 
     private final ProductionOptimizationService service;
+    private final ProductionScenarioService scenarioService;
+    private final ProductionScheduleService scheduleService;
+    private final BomSnapshotCache snapshotCache;
 
     @GetMapping("/optimize")
-    public ResponseEntity<@NonNull ProductionSuggestionResponse> optimize(){
-        return ResponseEntity.ok(service.optimize());
+    public ResponseEntity<@NonNull ProductionSuggestionResponse> optimize(
+            @RequestParam(defaultValue = "GREEDY") OptimizationStrategy strategy) {
+        // Spring answers If-None-Match / If-Modified-Since with 304 from these headers
+        ProductionPlan plan = service.plan(strategy);
+        return ResponseEntity.ok()
+                .eTag(plan.etag())
+                .lastModified(plan.builtAt())
+                .cacheControl(CacheControl.noCache())
+                .body(plan.response());
+    }
+
+    @GetMapping("/optimize/diff")
+    public ResponseEntity<@NonNull ProductionPlanDiffResponse> diff(
+            @RequestParam(defaultValue = "GREEDY") OptimizationStrategy strategy,
+            @RequestParam(required = false) Long fromVersion) {
+        return ResponseEntity.ok(service.diff(strategy, fromVersion));
+    }
+
+    @PostMapping("/scenarios")
+    public ResponseEntity<@NonNull ScenarioResponse> scenarios(
+            @RequestParam(defaultValue = "GREEDY") OptimizationStrategy strategy,
+            @Valid @RequestBody ScenarioRequest request) {
+        return ResponseEntity.ok(scenarioService.evaluate(strategy, request));
+    }
+
+    @PostMapping("/schedule")
+    public ResponseEntity<@NonNull ScheduleResponse> schedule(
+            @RequestParam(defaultValue = "GREEDY") OptimizationStrategy strategy,
+            @Valid @RequestBody ScheduleRequest request) {
+        return ResponseEntity.ok(scheduleService.schedule(strategy, request));
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<@NonNull BomSnapshotStatsResponse> snapshot() {
+        return ResponseEntity.ok(snapshotCache.stats());
     }
 }
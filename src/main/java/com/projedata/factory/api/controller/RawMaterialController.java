@@ -1,19 +1,34 @@
 package com.projedata.factory.api.controller;
 
 import com.projedata.factory.api.dto.CsvImportResponse;
+import com.projedata.factory.api.dto.ImportJobResponse;
+import com.projedata.factory.api.dto.PageResponse;
 import com.projedata.factory.api.dto.RawMaterialRequest;
+import com.projedata.factory.api.dto.RawMaterialResponse;
+import com.projedata.factory.api.dto.StockAdjustmentRequest;
+import com.projedata.factory.api.dto.StockAdjustmentResponse;
 import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.service.CatalogExportService;
 import com.projedata.factory.api.service.CsvImportService;
+import com.projedata.factory.api.service.ExportFormat;
+import com.projedata.factory.api.service.ImportJobService;
 import com.projedata.factory.api.service.RawMaterialService;
+import com.projedata.factory.api.service.StockAdjustmentService;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.List;
+import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/raw-materials")
@@ -22,10 +37,29 @@ public class RawMaterialController {
 
     private final RawMaterialService service;
     private final CsvImportService csvImportService;
+    private final ImportJobService importJobService;
+    private final CatalogExportService exportService;
+    private final StockAdjustmentService stockAdjustmentService;
 
     @GetMapping
-    public ResponseEntity<@NonNull List<RawMaterial>> findAll() {
-        return ResponseEntity.ok(service.findAll());
+    public ResponseEntity<@NonNull PageResponse<RawMaterialResponse>> findAll(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(required = false) Integer size) {
+
+        return ResponseEntity.ok(service.findPage(cursor, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<@NonNull StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("raw-materials." + format.extension())
+                        .build()
+                        .toString())
+                .body(output -> exportService.writeRawMaterials(format, output));
     }
 
     @GetMapping("/{id}")
@@ -55,6 +89,58 @@ public class RawMaterialController {
         return ResponseEntity.status(status).body(response);
     }
 
+    @PostMapping("/import/batch")
+    public ResponseEntity<@NonNull CsvImportResponse> importBatch(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) Integer chunkSize) {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CsvImportResponse response = csvImportService.importRawMaterialsBatched(file, chunkSize);
+
+        HttpStatus status = response.hasErrors()
+                ? HttpStatus.MULTI_STATUS
+                : HttpStatus.OK;
+
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @PostMapping("/import/jobs")
+    public ResponseEntity<@NonNull ImportJobResponse> submitImportJob(
+            @RequestParam("file") MultipartFile file) {
+
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ImportJobResponse job = importJobService.submit(file);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.id())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/import/jobs/{id}")
+    public ResponseEntity<@NonNull ImportJobResponse> findImportJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(importJobService.find(id));
+    }
+
+    @PostMapping("/stock/adjustments")
+    public ResponseEntity<@NonNull StockAdjustmentResponse> adjustStock(
+            @Valid @RequestBody StockAdjustmentRequest request) {
+
+        StockAdjustmentResponse response = stockAdjustmentService.adjust(request);
+
+        HttpStatus status = response.rolledBack()
+                ? HttpStatus.CONFLICT
+                : response.hasErrors() ? HttpStatus.MULTI_STATUS : HttpStatus.OK;
+
+        return ResponseEntity.status(status).body(response);
+    }
 
     @PutMapping("/{id}")
     public ResponseEntity<@NonNull RawMaterial> update(@PathVariable Long id, @Valid @RequestBody RawMaterialRequest request) {
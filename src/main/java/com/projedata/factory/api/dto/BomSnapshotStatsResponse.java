@@ -0,0 +1,16 @@
+package com.projedata.factory.api.dto;
+
+import java.time.Instant;
+
+public record BomSnapshotStatsResponse(
+        long version,
+        Instant builtAt,
+        int products,
+        int compositions,
+        int rawMaterials,
+        long hits,
+        long misses,
+        long rebuilds,
+        long patches
+) {
+}
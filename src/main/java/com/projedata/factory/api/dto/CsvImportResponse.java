@@ -5,7 +5,8 @@ import java.util.List;
 public record CsvImportResponse (
         int recordsImported,
         int recordsSkipped,
-        List<String> errors
+        List<String> errors,
+        double rowsPerSecond
 ){
     public boolean hasErrors() {
         return errors != null && !errors.isEmpty();
@@ -0,0 +1,26 @@
+package com.projedata.factory.api.dto;
+
+import com.projedata.factory.api.service.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record ImportJobResponse(
+        UUID id,
+        ImportJobStatus status,
+        String fileName,
+        long rowsProcessed,
+        long recordsImported,
+        long recordsSkipped,
+        long recordsCommitted,
+        long errorCount,
+        List<String> errors,
+        String failure,
+        double rowsPerSecond,
+        Long etaSeconds,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+}
@@ -0,0 +1,9 @@
+package com.projedata.factory.api.dto;
+
+import java.util.List;
+
+public record PageResponse<T>(
+        List<T> items,
+        Long nextCursor
+) {
+}
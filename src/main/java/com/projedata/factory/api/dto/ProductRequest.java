@@ -7,6 +7,10 @@ import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.util.List;
 
+/**
+ * {@code version} is optional on updates: when present the update only applies to that
+ * version and fails with 409 otherwise.
+ */
 public record ProductRequest(
         @NotBlank
         String code,
@@ -19,6 +23,12 @@ public record ProductRequest(
         BigDecimal saleValue,
 
         @NotEmpty
-        List<ProductCompositionRequest> compositions
+        List<ProductCompositionRequest> compositions,
+
+        Long version
 ) {
+
+    public ProductRequest(String code, String name, BigDecimal saleValue, List<ProductCompositionRequest> compositions) {
+        this(code, name, saleValue, compositions, null);
+    }
 }
@@ -0,0 +1,33 @@
+package com.projedata.factory.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductResponse(
+        Long id,
+        String code,
+        String name,
+        BigDecimal saleValue,
+
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<Composition> compositions
+) {
+
+    public ProductResponse(Long id, String code, String name, BigDecimal saleValue) {
+        this(id, code, name, saleValue, null);
+    }
+
+    public ProductResponse withCompositions(List<Composition> compositions) {
+        return new ProductResponse(id, code, name, saleValue, compositions);
+    }
+
+    public record Composition(
+            Long rawMaterialId,
+            String rawMaterialCode,
+            String rawMaterialName,
+            BigDecimal requiredQuantity,
+            String unit
+    ) {}
+}
@@ -0,0 +1,21 @@
+package com.projedata.factory.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ProductionPlanDiffResponse(
+        Long fromVersion,
+        long toVersion,
+        BigDecimal previousTotalValue,
+        BigDecimal totalValue,
+        List<ItemChange> changes
+) {
+
+    public record ItemChange(
+            String productCode,
+            String productName,
+            long previousQuantity,
+            long quantity,
+            BigDecimal unitValue
+    ){}
+}
@@ -1,17 +1,31 @@
 package com.projedata.factory.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 import java.util.List;
 
 public record ProductionSuggestionResponse(
         List<ProductionItem> suggestions,
-        BigDecimal totalValue
+        BigDecimal totalValue,
+
+        // heuristic that produced the plan, set by the PORTFOLIO strategy
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        String strategy
 ) {
 
+    public ProductionSuggestionResponse(List<ProductionItem> suggestions, BigDecimal totalValue) {
+        this(suggestions, totalValue, null);
+    }
+
+    public ProductionSuggestionResponse withStrategy(String strategy) {
+        return new ProductionSuggestionResponse(suggestions, totalValue, strategy);
+    }
+
     public record ProductionItem(
             String productCode,
             String productName,
-            int quantityToProduce,
+            long quantityToProduce,
             BigDecimal unitValue,
             BigDecimal totalItemValue
     ){}
@@ -6,6 +6,10 @@ import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 
+/**
+ * {@code version} is optional on updates: when present the update only applies to that
+ * version and fails with 409 otherwise; when absent the update overwrites the current state.
+ */
 public record RawMaterialRequest(
         @NotBlank
         String code,
@@ -18,6 +22,12 @@ public record RawMaterialRequest(
         BigDecimal stockQuantity,
 
         @NotBlank
-        String unit
+        String unit,
+
+        Long version
 ) {
+
+    public RawMaterialRequest(String code, String name, BigDecimal stockQuantity, String unit) {
+        this(code, name, stockQuantity, unit, null);
+    }
 }
@@ -0,0 +1,12 @@
+package com.projedata.factory.api.dto;
+
+import java.math.BigDecimal;
+
+public record RawMaterialResponse(
+        Long id,
+        String code,
+        String name,
+        BigDecimal stockQuantity,
+        String unit
+) {
+}
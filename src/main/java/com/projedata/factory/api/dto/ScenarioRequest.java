@@ -0,0 +1,51 @@
+package com.projedata.factory.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * What-if scenarios evaluated against the current BOM snapshot. Stock overrides name a raw
+ * material by {@code rawMaterialId} or {@code code} and give either an absolute {@code quantity}
+ * or a {@code delta}; price overrides name a product the same way and give either a new
+ * {@code saleValue} or a {@code changePercent}. Overrides are applied in order.
+ */
+public record ScenarioRequest(
+        @NotEmpty
+        List<@Valid @NotNull Scenario> scenarios
+) {
+
+    public record Scenario(
+            String name,
+
+            List<@Valid @NotNull StockOverride> stock,
+
+            List<@Valid @NotNull PriceOverride> prices
+    ) {
+    }
+
+    public record StockOverride(
+            Long rawMaterialId,
+
+            String code,
+
+            BigDecimal quantity,
+
+            BigDecimal delta
+    ) {
+    }
+
+    public record PriceOverride(
+            Long productId,
+
+            String code,
+
+            BigDecimal saleValue,
+
+            BigDecimal changePercent
+    ) {
+    }
+}
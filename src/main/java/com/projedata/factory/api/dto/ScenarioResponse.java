@@ -0,0 +1,18 @@
+package com.projedata.factory.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record ScenarioResponse(
+        long snapshotVersion,
+        ProductionSuggestionResponse baseline,
+        List<Result> scenarios
+) {
+
+    public record Result(
+            String name,
+            ProductionSuggestionResponse plan,
+            BigDecimal totalValueChange
+    ) {
+    }
+}
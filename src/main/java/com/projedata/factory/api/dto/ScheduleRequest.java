@@ -0,0 +1,37 @@
+package com.projedata.factory.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Planning horizon for a production schedule, one entry per period in order. Receipts name a
+ * raw material by {@code rawMaterialId} or {@code code} and arrive at the start of their period.
+ */
+public record ScheduleRequest(
+        @NotEmpty
+        List<@Valid @NotNull Period> periods
+) {
+
+    public record Period(
+            String name,
+
+            List<@Valid @NotNull Receipt> receipts
+    ) {
+    }
+
+    public record Receipt(
+            Long rawMaterialId,
+
+            String code,
+
+            @NotNull
+            @PositiveOrZero
+            BigDecimal quantity
+    ) {
+    }
+}
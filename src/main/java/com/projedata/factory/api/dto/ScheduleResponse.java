@@ -0,0 +1,16 @@
+package com.projedata.factory.api.dto;
+
+import java.util.List;
+
+public record ScheduleResponse(
+        long snapshotVersion,
+        ProductionSuggestionResponse total,
+        List<Period> periods
+) {
+
+    public record Period(
+            String name,
+            ProductionSuggestionResponse plan
+    ) {
+    }
+}
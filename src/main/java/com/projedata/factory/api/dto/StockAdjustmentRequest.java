@@ -0,0 +1,38 @@
+package com.projedata.factory.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record StockAdjustmentRequest(
+        @NotEmpty
+        @Size(max = 10000)
+        List<@Valid @NotNull Adjustment> adjustments,
+
+        Boolean atomic,
+
+        Boolean allowNegative
+) {
+
+    public boolean isAtomic() {
+        return Boolean.TRUE.equals(atomic);
+    }
+
+    public boolean isNegativeAllowed() {
+        return Boolean.TRUE.equals(allowNegative);
+    }
+
+    public record Adjustment(
+            Long rawMaterialId,
+
+            String code,
+
+            @NotNull
+            BigDecimal delta
+    ) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.projedata.factory.api.dto;
+
+import java.util.List;
+
+public record StockAdjustmentResponse(
+        int applied,
+        int rejected,
+        boolean rolledBack,
+        List<String> errors
+) {
+    public boolean hasErrors() {
+        return errors != null && !errors.isEmpty();
+    }
+}
@@ -3,12 +3,16 @@ package com.projedata.factory.api.entity;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "products")
 @Getter
 @Setter
@@ -18,7 +22,9 @@ import java.util.List;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SequenceIds.PRODUCTS)
+    @SequenceGenerator(name = SequenceIds.PRODUCTS, sequenceName = SequenceIds.PRODUCTS,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -30,7 +36,11 @@ public class Product {
     @Column(nullable = false)
     private BigDecimal saleValue;
 
+    @Version
+    private Long version;
+
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ProductComposition> compositions = new ArrayList<>();
 }
@@ -3,10 +3,14 @@ package com.projedata.factory.api.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "product_compositions")
 @Getter
 @Setter
@@ -16,7 +20,9 @@ import java.math.BigDecimal;
 public class ProductComposition {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SequenceIds.PRODUCT_COMPOSITIONS)
+    @SequenceGenerator(name = SequenceIds.PRODUCT_COMPOSITIONS, sequenceName = SequenceIds.PRODUCT_COMPOSITIONS,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @JsonBackReference
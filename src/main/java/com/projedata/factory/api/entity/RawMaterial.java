@@ -2,10 +2,14 @@ package com.projedata.factory.api.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "raw_materials")
 @Getter
 @Setter
@@ -15,7 +19,9 @@ import java.math.BigDecimal;
 public class RawMaterial {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = SequenceIds.RAW_MATERIALS)
+    @SequenceGenerator(name = SequenceIds.RAW_MATERIALS, sequenceName = SequenceIds.RAW_MATERIALS,
+            allocationSize = SequenceIds.ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -30,4 +36,7 @@ public class RawMaterial {
     @Column(nullable = false)
     private String unit;
 
+    @Version
+    private Long version;
+
 }
@@ -0,0 +1,18 @@
+package com.projedata.factory.api.entity;
+
+/**
+ * Sequence names and the pooled allocation size shared by the entity mappings and the
+ * JDBC writers. Every {@code nextval} reserves the {@link #ALLOCATION_SIZE} ids ending at
+ * the returned value, so Hibernate and the batch writers can draw from the same sequence.
+ */
+public final class SequenceIds {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    public static final String RAW_MATERIALS = "raw_materials_seq";
+    public static final String PRODUCTS = "products_seq";
+    public static final String PRODUCT_COMPOSITIONS = "product_compositions_seq";
+
+    private SequenceIds() {
+    }
+}
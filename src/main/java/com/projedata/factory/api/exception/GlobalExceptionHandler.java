@@ -1,24 +1,88 @@
 package com.projedata.factory.api.exception;
 
+import com.projedata.factory.api.repository.EntityVersionRepository;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final EntityVersionRepository versionRepository;
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<@NonNull ErrorResponse> handleResourceNotFound(ResourceNotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(new ErrorResponse(ex.getMessage(), HttpStatus.NOT_FOUND.value(), LocalDateTime.now()));
     }
 
+    @ExceptionHandler(ImportLimitExceededException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleImportLimitExceeded(ImportLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.CONTENT_TOO_LARGE)
+                .body(new ErrorResponse(ex.getMessage(), HttpStatus.CONTENT_TOO_LARGE.value(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(ImportCapacityExceededException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleImportCapacityExceeded(ImportCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(new ErrorResponse(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS.value(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(InvalidScenarioException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleInvalidScenario(InvalidScenarioException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST.value(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(InvalidScheduleException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleInvalidSchedule(InvalidScheduleException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST.value(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(QuantityOverflowException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleQuantityOverflow(QuantityOverflowException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_CONTENT)
+                .body(new ErrorResponse(ex.getMessage(), HttpStatus.UNPROCESSABLE_CONTENT.value(), LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<@NonNull ConflictResponse> handleVersionConflict(VersionConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ConflictResponse(ex.getMessage(), HttpStatus.CONFLICT.value(), ex.getCurrentVersion(),
+                        LocalDateTime.now()));
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<@NonNull ConflictResponse> handleOptimisticLockingFailure(
+            ObjectOptimisticLockingFailureException ex) {
+
+        Class<?> entityClass = ex.getPersistentClass();
+        String resource = entityClass == null ? ex.getPersistentClassName() : entityClass.getSimpleName();
+        Long currentVersion = null;
+        try {
+            if (entityClass != null && ex.getIdentifier() != null) {
+                currentVersion = versionRepository.findVersion(entityClass, ex.getIdentifier()).orElse(null);
+            }
+        } catch (RuntimeException lookupFailure) {
+            log.debug("Could not read the current version of {} {}", resource, ex.getIdentifier(), lookupFailure);
+        }
+
+        return handleVersionConflict(new VersionConflictException(resource, ex.getIdentifier(), currentVersion));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<@NonNull ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex) {
         String errorMessage = ex.getBindingResult().getFieldErrors().stream()
@@ -29,6 +93,14 @@ public class GlobalExceptionHandler {
                 LocalDateTime.now()));
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<@NonNull ErrorResponse> handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        String errorMessage = "Invalid value '" + ex.getValue() + "' for parameter " + ex.getName();
+
+        return ResponseEntity.badRequest().body(new ErrorResponse(errorMessage, HttpStatus.BAD_REQUEST.value(),
+                LocalDateTime.now()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<@NonNull ErrorResponse> handleGenericException(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -37,4 +109,6 @@ public class GlobalExceptionHandler {
     }
 
     public record ErrorResponse(String message, int status, LocalDateTime timestamp) {}
+
+    public record ConflictResponse(String message, int status, Long currentVersion, LocalDateTime timestamp) {}
 }
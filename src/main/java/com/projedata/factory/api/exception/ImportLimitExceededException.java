@@ -0,0 +1,11 @@
+package com.projedata.factory.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONTENT_TOO_LARGE)
+public class ImportLimitExceededException extends RuntimeException {
+    public ImportLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.projedata.factory.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidScheduleException extends RuntimeException {
+    public InvalidScheduleException(String message) {
+        super(message);
+    }
+}
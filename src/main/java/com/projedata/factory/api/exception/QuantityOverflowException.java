@@ -0,0 +1,11 @@
+package com.projedata.factory.api.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_CONTENT)
+public class QuantityOverflowException extends RuntimeException {
+    public QuantityOverflowException(String message) {
+        super(message);
+    }
+}
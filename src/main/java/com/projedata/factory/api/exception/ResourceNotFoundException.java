@@ -3,9 +3,17 @@ package com.projedata.factory.api.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.Collection;
+
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
-    public ResourceNotFoundException(String resource, Long id) {
-        super(String.format("%s not found with id %d", resource, id));
+    public ResourceNotFoundException(String resource, Object id) {
+        super(String.format("%s not found with id %s", resource, id));
+    }
+
+    public ResourceNotFoundException(String resource, Collection<?> ids) {
+        super(ids.size() == 1
+                ? String.format("%s not found with id %s", resource, ids.iterator().next())
+                : String.format("%s not found with ids %s", resource, ids));
     }
 }
@@ -0,0 +1,17 @@
+package com.projedata.factory.api.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@Getter
+@ResponseStatus(HttpStatus.CONFLICT)
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionConflictException(String resource, Object id, Long currentVersion) {
+        super(String.format("%s %s was modified by another request (current version %s)", resource, id, currentVersion));
+        this.currentVersion = currentVersion;
+    }
+}
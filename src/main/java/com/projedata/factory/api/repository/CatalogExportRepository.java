@@ -0,0 +1,101 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.config.ExportProperties;
+import com.projedata.factory.api.dto.ProductResponse;
+import com.projedata.factory.api.dto.RawMaterialResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only, read-only cursors over the catalog for exports. Rows are handed to the
+ * consumer as they are fetched, so nothing but the current product is held in memory.
+ * PostgreSQL only honours the fetch size inside a transaction, so callers open one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogExportRepository {
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.code, p.name, p.sale_value,
+                   r.id AS raw_material_id, r.code AS raw_material_code, r.name AS raw_material_name,
+                   c.required_quantity, r.unit
+            FROM products p
+            LEFT JOIN product_compositions c ON c.product_id = p.id
+            LEFT JOIN raw_materials r ON r.id = c.raw_material_id
+            ORDER BY p.id, c.id""";
+
+    private static final String RAW_MATERIALS_SQL =
+            "SELECT id, code, name, stock_quantity, unit FROM raw_materials ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties properties;
+
+    public void streamProducts(Consumer<ProductResponse> consumer) {
+        ProductAssembler assembler = new ProductAssembler(consumer);
+        stream(PRODUCTS_SQL, assembler);
+        assembler.flush();
+    }
+
+    public void streamRawMaterials(Consumer<RawMaterialResponse> consumer) {
+        stream(RAW_MATERIALS_SQL, rs -> consumer.accept(new RawMaterialResponse(
+                rs.getLong("id"),
+                rs.getString("code"),
+                rs.getString("name"),
+                rs.getBigDecimal("stock_quantity"),
+                rs.getString("unit"))));
+    }
+
+    private void stream(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.fetchSize());
+            return statement;
+        }, handler);
+    }
+
+    private static final class ProductAssembler implements RowCallbackHandler {
+
+        private final Consumer<ProductResponse> consumer;
+        private ProductResponse product;
+        private List<ProductResponse.Composition> compositions;
+
+        ProductAssembler(Consumer<ProductResponse> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (product == null || product.id() != id) {
+                flush();
+                product = new ProductResponse(id, rs.getString("code"), rs.getString("name"),
+                        rs.getBigDecimal("sale_value"));
+                compositions = new ArrayList<>();
+            }
+
+            long rawMaterialId = rs.getLong("raw_material_id");
+            if (!rs.wasNull()) {
+                compositions.add(new ProductResponse.Composition(
+                        rawMaterialId,
+                        rs.getString("raw_material_code"),
+                        rs.getString("raw_material_name"),
+                        rs.getBigDecimal("required_quantity"),
+                        rs.getString("unit")));
+            }
+        }
+
+        void flush() {
+            if (product != null) {
+                consumer.accept(product.withCompositions(compositions));
+                product = null;
+            }
+        }
+    }
+}
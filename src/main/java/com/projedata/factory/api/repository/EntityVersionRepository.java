@@ -0,0 +1,26 @@
+package com.projedata.factory.api.repository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Reads the committed {@code @Version} of an entity straight from the database, bypassing
+ * the second-level cache, to tell a client which version won a conflict.
+ */
+@Repository
+@RequiredArgsConstructor
+public class EntityVersionRepository {
+
+    private final EntityManager entityManager;
+
+    public Optional<Long> findVersion(Class<?> entityClass, Object id) {
+        return entityManager.createQuery(
+                        "SELECT e.version FROM " + entityClass.getSimpleName() + " e WHERE e.id = :id", Long.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
+}
@@ -3,9 +3,21 @@ package com.projedata.factory.api.repository;
 import com.projedata.factory.api.entity.ProductComposition;
 import lombok.NonNull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductCompositionRepository extends JpaRepository<@NonNull ProductComposition, @NonNull Long> {
 
     void deleteByProductId(Long productId);
 
+    @Query("""
+            SELECT new com.projedata.factory.api.repository.ProductCompositionRow(
+                c.product.id, r.id, r.code, r.name, c.requiredQuantity, r.unit)
+            FROM ProductComposition c
+            JOIN c.rawMaterial r
+            WHERE c.product.id IN :productIds
+            ORDER BY c.product.id, c.id""")
+    List<ProductCompositionRow> findRowsByProductIds(Collection<Long> productIds);
+
 }
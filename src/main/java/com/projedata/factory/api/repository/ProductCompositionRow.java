@@ -0,0 +1,19 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.dto.ProductResponse;
+
+import java.math.BigDecimal;
+
+public record ProductCompositionRow(
+        Long productId,
+        Long rawMaterialId,
+        String rawMaterialCode,
+        String rawMaterialName,
+        BigDecimal requiredQuantity,
+        String unit
+) {
+
+    public ProductResponse.Composition toComposition() {
+        return new ProductResponse.Composition(rawMaterialId, rawMaterialCode, rawMaterialName, requiredQuantity, unit);
+    }
+}
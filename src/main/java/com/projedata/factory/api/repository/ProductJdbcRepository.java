@@ -0,0 +1,119 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.SequenceIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class ProductJdbcRepository {
+
+    static final String COMPOSITIONS_ROLE = Product.class.getName() + ".compositions";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (id, code, name, sale_value) VALUES (?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET name = ?, sale_value = ?, version = version + 1 WHERE id = ?";
+
+    private static final String INSERT_COMPOSITION_SQL =
+            "INSERT INTO product_compositions (id, product_id, raw_material_id, required_quantity) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final SequenceIdAllocator idAllocator;
+
+    public Map<String, Long> findIdsByCodes(Collection<String> codes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (codes.isEmpty()) return ids;
+
+        namedJdbcTemplate.query(
+                "SELECT id, code FROM products WHERE code IN (:codes)",
+                Map.of("codes", codes),
+                rs -> {
+                    ids.put(rs.getString("code"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    /**
+     * Inserts the products in one batch, assigning each one an id from the pooled sequence.
+     */
+    public void batchInsert(List<Product> products) {
+        if (products.isEmpty()) return;
+
+        long[] ids = idAllocator.allocate(SequenceIds.PRODUCTS, products.size());
+        for (int i = 0; i < ids.length; i++) {
+            products.get(i).setId(ids[i]);
+        }
+
+        evictAfterCompletion(Arrays.stream(ids).boxed().toList());
+        jdbcTemplate.batchUpdate(INSERT_SQL, products, products.size(), (ps, p) -> {
+            ps.setLong(1, p.getId());
+            ps.setString(2, p.getCode());
+            ps.setString(3, p.getName());
+            ps.setBigDecimal(4, p.getSaleValue());
+        });
+    }
+
+    public void batchUpdate(List<Product> products) {
+        if (products.isEmpty()) return;
+
+        evictAfterCompletion(products.stream().map(Product::getId).toList());
+        jdbcTemplate.batchUpdate(UPDATE_SQL, products, products.size(), (ps, p) -> {
+            ps.setString(1, p.getName());
+            ps.setBigDecimal(2, p.getSaleValue());
+            ps.setLong(3, p.getId());
+        });
+    }
+
+    /**
+     * Deletes the current compositions of the given products and inserts theirs in one batch.
+     * Every product must already carry its id.
+     */
+    public void replaceCompositions(List<Product> products) {
+        if (products.isEmpty()) return;
+
+        List<Long> productIds = products.stream().map(Product::getId).toList();
+        evictAfterCompletion(productIds);
+        // the deleted composition rows are not known by id
+        cacheEvictor.evictAllEntities(ProductComposition.class);
+        namedJdbcTemplate.update(
+                "DELETE FROM product_compositions WHERE product_id IN (:ids)",
+                Map.of("ids", productIds));
+
+        List<ProductComposition> compositions = products.stream()
+                .flatMap(p -> p.getCompositions().stream())
+                .toList();
+        if (compositions.isEmpty()) return;
+
+        long[] ids = idAllocator.allocate(SequenceIds.PRODUCT_COMPOSITIONS, compositions.size());
+        for (int i = 0; i < ids.length; i++) {
+            compositions.get(i).setId(ids[i]);
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_COMPOSITION_SQL, compositions, compositions.size(), (ps, c) -> {
+            ps.setLong(1, c.getId());
+            ps.setLong(2, c.getProduct().getId());
+            ps.setLong(3, c.getRawMaterial().getId());
+            ps.setBigDecimal(4, c.getRequiredQuantity());
+        });
+    }
+
+    private void evictAfterCompletion(List<Long> productIds) {
+        cacheEvictor.evictEntities(Product.class, productIds);
+        cacheEvictor.evictCollections(COMPOSITIONS_ROLE, productIds);
+        cacheEvictor.evictQueries(ProductRepository.QUERY_REGION);
+    }
+}
@@ -1,17 +1,35 @@
 package com.projedata.factory.api.repository;
 
+import com.projedata.factory.api.dto.ProductResponse;
 import com.projedata.factory.api.entity.Product;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<@NonNull Product, @NonNull Long> {
 
+    /** Query cache region for the cacheable queries below; JDBC writers evict it after commit. */
+    String QUERY_REGION = "product-queries";
+
     boolean existsByCode(String code);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.compositions c LEFT JOIN FETCH c.rawMaterial")
     List<Product> findAllWithCompositions();
 
+    @Query("""
+            SELECT new com.projedata.factory.api.dto.ProductResponse(p.id, p.code, p.name, p.saleValue)
+            FROM Product p
+            WHERE p.id > :cursor
+            ORDER BY p.id""")
+    List<ProductResponse> findPageAfter(long cursor, Limit limit);
+
 }
@@ -0,0 +1,153 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.entity.SequenceIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class RawMaterialJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO raw_materials (id, code, name, stock_quantity, unit) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE raw_materials SET name = ?, stock_quantity = ?, unit = ?, version = version + 1 WHERE id = ?";
+
+    private static final String ADD_STOCK_SQL =
+            "UPDATE raw_materials SET stock_quantity = stock_quantity + ?, version = version + 1 WHERE id = ?";
+
+    private static final String ADD_STOCK_NON_NEGATIVE_SQL =
+            "UPDATE raw_materials SET stock_quantity = stock_quantity + ?, version = version + 1 "
+                    + "WHERE id = ? AND stock_quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final SequenceIdAllocator idAllocator;
+
+    public Map<String, Long> findIdsByCodes(Collection<String> codes) {
+        Map<String, Long> ids = new HashMap<>();
+        if (codes.isEmpty()) return ids;
+
+        namedJdbcTemplate.query(
+                "SELECT id, code FROM raw_materials WHERE code IN (:codes)",
+                Map.of("codes", codes),
+                rs -> {
+                    ids.put(rs.getString("code"), rs.getLong("id"));
+                });
+        return ids;
+    }
+
+    public Map<String, Long> findAllIdsByCode() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, code FROM raw_materials", rs -> {
+            ids.put(rs.getString("code"), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        Set<Long> existing = new HashSet<>();
+        if (ids.isEmpty()) return existing;
+
+        namedJdbcTemplate.query(
+                "SELECT id FROM raw_materials WHERE id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    existing.add(rs.getLong("id"));
+                });
+        return existing;
+    }
+
+    public Map<Long, StockLevel> findStockByIds(Collection<Long> ids) {
+        Map<Long, StockLevel> stock = new HashMap<>();
+        if (ids.isEmpty()) return stock;
+
+        namedJdbcTemplate.query(
+                "SELECT id, stock_quantity, version FROM raw_materials WHERE id IN (:ids)",
+                Map.of("ids", ids),
+                rs -> {
+                    stock.put(rs.getLong("id"), new StockLevel(rs.getBigDecimal("stock_quantity"), rs.getLong("version")));
+                });
+        return stock;
+    }
+
+    /**
+     * Applies each delta as {@code stock_quantity = stock_quantity + ?}, in order, in JDBC batches.
+     * Returns the affected row count per delta; with {@code rejectNegative} a delta that would take
+     * the stock below zero matches no row and reports {@code 0}.
+     */
+    public int[] addStock(List<StockDelta> deltas, boolean rejectNegative, int batchSize) {
+        if (deltas.isEmpty()) return new int[0];
+
+        String sql = rejectNegative ? ADD_STOCK_NON_NEGATIVE_SQL : ADD_STOCK_SQL;
+        evictAfterCompletion(deltas.stream().map(StockDelta::rawMaterialId).toList());
+        int[][] batches = jdbcTemplate.batchUpdate(sql, deltas, batchSize, (ps, d) -> {
+            ps.setBigDecimal(1, d.delta());
+            ps.setLong(2, d.rawMaterialId());
+            if (rejectNegative) ps.setBigDecimal(3, d.delta());
+        });
+
+        int[] counts = new int[deltas.size()];
+        int i = 0;
+        for (int[] batch : batches) {
+            for (int count : batch) {
+                counts[i++] = count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Inserts the materials in one batch, assigning each one an id from the pooled sequence.
+     */
+    public void batchInsert(List<RawMaterial> materials) {
+        if (materials.isEmpty()) return;
+
+        long[] ids = idAllocator.allocate(SequenceIds.RAW_MATERIALS, materials.size());
+        for (int i = 0; i < ids.length; i++) {
+            materials.get(i).setId(ids[i]);
+        }
+
+        evictAfterCompletion(Arrays.stream(ids).boxed().toList());
+        jdbcTemplate.batchUpdate(INSERT_SQL, materials, materials.size(), (ps, m) -> {
+            ps.setLong(1, m.getId());
+            ps.setString(2, m.getCode());
+            ps.setString(3, m.getName());
+            ps.setBigDecimal(4, m.getStockQuantity());
+            ps.setString(5, m.getUnit());
+        });
+    }
+
+    public void batchUpdate(List<RawMaterial> materials) {
+        if (materials.isEmpty()) return;
+
+        evictAfterCompletion(materials.stream().map(RawMaterial::getId).toList());
+        jdbcTemplate.batchUpdate(UPDATE_SQL, materials, materials.size(), (ps, m) -> {
+            ps.setString(1, m.getName());
+            ps.setBigDecimal(2, m.getStockQuantity());
+            ps.setString(3, m.getUnit());
+            ps.setLong(4, m.getId());
+        });
+    }
+
+    private void evictAfterCompletion(List<Long> ids) {
+        cacheEvictor.evictEntities(RawMaterial.class, ids);
+        cacheEvictor.evictQueries(RawMaterialRepository.QUERY_REGION);
+        // the catalog query join-fetches raw materials and caches their rows with its result
+        cacheEvictor.evictQueries(ProductRepository.QUERY_REGION);
+    }
+}
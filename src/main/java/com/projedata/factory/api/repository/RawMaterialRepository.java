@@ -1,13 +1,34 @@
 package com.projedata.factory.api.repository;
 
+import com.projedata.factory.api.dto.RawMaterialResponse;
 import com.projedata.factory.api.entity.RawMaterial;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import java.util.List;
 import java.util.Optional;
 
 public interface RawMaterialRepository extends JpaRepository<@NonNull RawMaterial, @NonNull Long> {
 
+    /** Query cache region for the cacheable queries below; JDBC writers evict it after commit. */
+    String QUERY_REGION = "raw-material-queries";
+
     boolean existsBycode(String code);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_REGION)})
     Optional<RawMaterial> findByCode(String code);
 
+    @Query("""
+            SELECT new com.projedata.factory.api.dto.RawMaterialResponse(r.id, r.code, r.name, r.stockQuantity, r.unit)
+            FROM RawMaterial r
+            WHERE r.id > :cursor
+            ORDER BY r.id""")
+    List<RawMaterialResponse> findPageAfter(long cursor, Limit limit);
+
 }
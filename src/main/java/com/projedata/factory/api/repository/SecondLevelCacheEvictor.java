@@ -0,0 +1,96 @@
+package com.projedata.factory.api.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * JDBC writes bypass Hibernate, so neither the entity regions nor the query cache learn about
+ * them. Writers report what they touched — entity ids, collection owners, the query region their
+ * cached queries live in — and everything a transaction reported is evicted once, when it
+ * completes; evicting earlier would let a concurrent reader cache the pre-commit rows again.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictEntities(Class<?> entityClass, Collection<?> ids) {
+        afterCompletion(evictions -> evictions.entityIds.computeIfAbsent(entityClass, type -> new HashSet<>()).addAll(ids));
+    }
+
+    /** For rows whose ids the writer does not know, such as the ones a bulk delete removed. */
+    public void evictAllEntities(Class<?> entityClass) {
+        afterCompletion(evictions -> evictions.entityClasses.add(entityClass));
+    }
+
+    public void evictCollections(String role, Collection<?> ownerIds) {
+        afterCompletion(evictions -> evictions.collectionOwners.computeIfAbsent(role, r -> new HashSet<>()).addAll(ownerIds));
+    }
+
+    public void evictQueries(String region) {
+        afterCompletion(evictions -> evictions.queryRegions.add(region));
+    }
+
+    private void afterCompletion(Consumer<Evictions> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Evictions evictions = new Evictions();
+            change.accept(evictions);
+            evictions.evict();
+            return;
+        }
+
+        Evictions evictions = (Evictions) TransactionSynchronizationManager.getResource(this);
+        if (evictions == null) {
+            evictions = new Evictions();
+            TransactionSynchronizationManager.bindResource(this, evictions);
+            TransactionSynchronizationManager.registerSynchronization(evictions);
+        }
+        change.accept(evictions);
+    }
+
+    private final class Evictions implements TransactionSynchronization {
+
+        private final Map<Class<?>, Set<Object>> entityIds = new HashMap<>();
+        private final Set<Class<?>> entityClasses = new LinkedHashSet<>();
+        private final Map<String, Set<Object>> collectionOwners = new HashMap<>();
+        private final Set<String> queryRegions = new LinkedHashSet<>();
+
+        // an inner REQUIRES_NEW transaction gets its own set and evicts when it commits
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(SecondLevelCacheEvictor.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(SecondLevelCacheEvictor.this, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(SecondLevelCacheEvictor.this);
+            evict();
+        }
+
+        void evict() {
+            org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            entityIds.forEach((type, ids) -> ids.forEach(id -> cache.evictEntityData(type, id)));
+            entityClasses.forEach(cache::evictEntityData);
+            collectionOwners.forEach((role, owners) -> owners.forEach(owner -> cache.evictCollectionData(role, owner)));
+            queryRegions.forEach(cache::evictQueryRegion);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.entity.SequenceIds;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands out ids for JDBC batch inserts from the same pooled sequences Hibernate uses.
+ * A value {@code v} returned by {@code nextval} owns the block {@code (v - ALLOCATION_SIZE, v]}
+ * (clamped at 1 for the very first value), which matches Hibernate's pooled optimizer, so ids
+ * from both sides never collide. All blocks a call needs are fetched in one round trip.
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long[] allocate(String sequence, int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+
+        while (filled < count) {
+            int blocks = Math.ceilDiv(count - filled, SequenceIds.ALLOCATION_SIZE);
+            List<Long> values = jdbcTemplate.queryForList(
+                    "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)", Long.class, blocks);
+
+            for (long value : values) {
+                for (long id = Math.max(value - SequenceIds.ALLOCATION_SIZE + 1, 1); id <= value && filled < count; id++) {
+                    ids[filled++] = id;
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,9 @@
+package com.projedata.factory.api.repository;
+
+import java.math.BigDecimal;
+
+public record StockDelta(
+        long rawMaterialId,
+        BigDecimal delta
+) {
+}
@@ -0,0 +1,10 @@
+package com.projedata.factory.api.repository;
+
+import java.math.BigDecimal;
+
+/** Committed stock of a raw material and the row version that wrote it. */
+public record StockLevel(
+        BigDecimal quantity,
+        long version
+) {
+}
@@ -0,0 +1,14 @@
+package com.projedata.factory.api.service;
+
+import java.time.Instant;
+
+/**
+ * @param stockVersions row version of each material's stock, indexed like the catalog's materials
+ */
+public record BomSnapshot(
+        long version,
+        CompiledCatalog catalog,
+        Instant builtAt,
+        long[] stockVersions
+) {
+}
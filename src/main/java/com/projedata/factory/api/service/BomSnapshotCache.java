@@ -0,0 +1,189 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.BomSnapshotStatsResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the compiled bill of materials used by optimize(). Structural writes drop the
+ * snapshot and the next read rebuilds it once; stock-only writes are patched in place
+ * as a new immutable snapshot with a higher version, unless the snapshot already holds
+ * a newer row version of that stock. Every write bumps a generation
+ * counter so a rebuild that raced with a commit is served but never published.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BomSnapshotCache {
+
+    private final ProductRepository productRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<BomSnapshot> current = new AtomicReference<>();
+    private volatile BomSnapshot latest;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder patches = new LongAdder();
+    // not synchronized: the rebuild runs a query, and a virtual thread blocked in JDBC inside a monitor pins its carrier
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public BomSnapshot get() {
+        BomSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        misses.increment();
+        return rebuild();
+    }
+
+    private BomSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            BomSnapshot snapshot = current.get();
+            if (snapshot != null) return snapshot;
+
+            long observedGeneration = generation.get();
+            List<Product> products = meterRegistry.timer("factory.bom.snapshot.rebuild", "phase", "query")
+                    .record(productRepository::findAllWithCompositions);
+            CompiledCatalog catalog = meterRegistry.timer("factory.bom.snapshot.rebuild", "phase", "compile")
+                    .record(() -> CompiledCatalog.compile(products));
+            snapshot = new BomSnapshot(versions.incrementAndGet(), catalog, Instant.now(), stockVersions(catalog, products));
+            rebuilds.increment();
+            latest = snapshot;
+
+            if (generation.get() == observedGeneration) {
+                current.compareAndSet(null, snapshot);
+            }
+            log.info("BOM snapshot v{} rebuilt — products: {}, compositions: {}, raw materials: {}",
+                    snapshot.version(), catalog.productCount(), catalog.compositionCount(), catalog.materialCount());
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current.set(null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        log.debug("BOM snapshot invalidated: {}", event.reason());
+        invalidate();
+    }
+
+    /**
+     * Patches the stock of the current snapshot. After-commit listeners of concurrent
+     * transactions can run in either order, so a level is applied only when its row version
+     * is newer than the one the snapshot holds; older or repeated levels are dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        generation.incrementAndGet();
+
+        BomSnapshot before = current.get();
+        BomSnapshot patched = current.updateAndGet(snapshot -> snapshot == null ? null : patch(snapshot, event));
+
+        if (patched != null && patched != before) {
+            patches.increment();
+            latest = patched;
+        }
+    }
+
+    private BomSnapshot patch(BomSnapshot snapshot, StockChangedEvent event) {
+        CompiledCatalog catalog = snapshot.catalog();
+        long[] stockVersions = snapshot.stockVersions().clone();
+        Map<Long, BigDecimal> newer = new HashMap<>();
+
+        event.stockByRawMaterialId().forEach((id, level) -> {
+            int material = catalog.materialIndex(id);
+            if (material >= 0 && level.version() > stockVersions[material]) {
+                stockVersions[material] = level.version();
+                newer.put(id, level.quantity());
+            }
+        });
+        if (newer.isEmpty()) return snapshot;
+
+        return catalog.withStock(newer)
+                .map(c -> new BomSnapshot(versions.incrementAndGet(), c, Instant.now(), stockVersions))
+                .orElse(null);
+    }
+
+    private static long[] stockVersions(CompiledCatalog catalog, List<Product> products) {
+        long[] stockVersions = new long[catalog.materialCount()];
+        for (Product product : products) {
+            for (ProductComposition composition : product.getCompositions()) {
+                RawMaterial material = composition.getRawMaterial();
+                int index = catalog.materialIndex(material.getId());
+                if (index >= 0 && material.getVersion() != null) {
+                    stockVersions[index] = material.getVersion();
+                }
+            }
+        }
+        return stockVersions;
+    }
+
+    /** The published snapshot without rebuilding; empty after a structural change until the next get(). */
+    Optional<BomSnapshot> peek() {
+        return Optional.ofNullable(current.get());
+    }
+
+    BomSnapshot latest() {
+        return latest;
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long rebuilds() {
+        return rebuilds.sum();
+    }
+
+    long patches() {
+        return patches.sum();
+    }
+
+    public BomSnapshotStatsResponse stats() {
+        BomSnapshot snapshot = current.get();
+        CompiledCatalog catalog = snapshot == null ? null : snapshot.catalog();
+
+        return new BomSnapshotStatsResponse(
+                snapshot == null ? versions.get() : snapshot.version(),
+                snapshot == null ? null : snapshot.builtAt(),
+                catalog == null ? 0 : catalog.productCount(),
+                catalog == null ? 0 : catalog.compositionCount(),
+                catalog == null ? 0 : catalog.materialCount(),
+                hits(),
+                misses(),
+                rebuilds(),
+                patches()
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.projedata.factory.api.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Catalog size gauges and snapshot cache counters. Sizes come from the last snapshot
+ * built or patched, so they don't drop to zero while the cache waits for a rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+public class BomSnapshotMetrics implements MeterBinder {
+
+    private final BomSnapshotCache snapshotCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "factory.catalog.products", cache -> size(cache, CompiledCatalog::productCount));
+        gauge(registry, "factory.catalog.compositions", cache -> size(cache, CompiledCatalog::compositionCount));
+        gauge(registry, "factory.catalog.raw.materials", cache -> size(cache, CompiledCatalog::materialCount));
+        gauge(registry, "factory.bom.snapshot.version", cache -> cache.stats().version());
+
+        counter(registry, "factory.bom.snapshot.requests", "result", "hit", BomSnapshotCache::hits);
+        counter(registry, "factory.bom.snapshot.requests", "result", "miss", BomSnapshotCache::misses);
+        counter(registry, "factory.bom.snapshot.updates", "type", "rebuild", BomSnapshotCache::rebuilds);
+        counter(registry, "factory.bom.snapshot.updates", "type", "patch", BomSnapshotCache::patches);
+    }
+
+    private void gauge(MeterRegistry registry, String name, ToDoubleFunction<BomSnapshotCache> value) {
+        Gauge.builder(name, snapshotCache, value).register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String tag, String tagValue,
+                         ToDoubleFunction<BomSnapshotCache> value) {
+        FunctionCounter.builder(name, snapshotCache, value)
+                .tag(tag, tagValue)
+                .register(registry);
+    }
+
+    private static double size(BomSnapshotCache cache, ToDoubleFunction<CompiledCatalog> size) {
+        BomSnapshot snapshot = cache.latest();
+        return snapshot == null ? 0 : size.applyAsDouble(snapshot.catalog());
+    }
+}
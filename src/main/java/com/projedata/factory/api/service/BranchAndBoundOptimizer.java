@@ -0,0 +1,482 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Exact engine: depth-first branch-and-bound over the LP relaxation of
+ * max sum(saleValue * x) s.t. sum(requiredQuantity * x) <= stock, x integer >= 0.
+ * The greedy plan seeds the incumbent, so when the time or node budget runs out
+ * the best plan found so far is returned and it is never worse than greedy.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BranchAndBoundOptimizer implements ProductionOptimizer {
+
+    private static final double EPSILON = 1e-9;
+    private static final double INTEGRALITY_TOLERANCE = 1e-6;
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final OptimizerProperties properties;
+
+    @Override
+    public OptimizationStrategy strategy() {
+        return OptimizationStrategy.EXACT;
+    }
+
+    @Override
+    public ProductionSuggestionResponse optimize(CompiledCatalog catalog) {
+        if (catalog.isWide()) {
+            log.warn("Catalog quantities exceed the long range — returning the checked greedy plan instead of searching");
+            return catalog.toResponse(CheckedGreedy.plan(catalog));
+        }
+
+        Model model = Model.of(catalog);
+        OptimizerProperties.Exact budget = properties.exact();
+
+        Search search = new Search(model, System.nanoTime() + budget.timeBudget().toNanos(), budget.nodeBudget());
+        long[] best = search.run();
+
+        log.info("Exact optimization finished — products: {}, nodes: {}, proven optimal: {}, value: {}",
+                model.size(), search.nodes, !search.truncated, search.bestValue);
+        return model.toResponse(best);
+    }
+
+    private static final class Search {
+
+        private final Model model;
+        private final long deadline;
+        private final int nodeBudget;
+        private final long[] lower;
+        private final long[] upper;
+        private final Simplex simplex = new Simplex();
+
+        private long[] best;
+        private BigDecimal bestValue;
+        private int nodes;
+        private boolean truncated;
+
+        Search(Model model, long deadline, int nodeBudget) {
+            this.model = model;
+            this.deadline = deadline;
+            this.nodeBudget = nodeBudget;
+            this.lower = new long[model.size()];
+            this.upper = new long[model.size()];
+        }
+
+        long[] run() {
+            best = new long[model.size()];
+            long[] noLimit = new long[model.size()];
+            Arrays.fill(noLimit, UNBOUNDED);
+            bestValue = model.fill(best, noLimit);
+
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(Node.ROOT);
+
+            while (!stack.isEmpty()) {
+                if (nodes >= nodeBudget || System.nanoTime() > deadline) {
+                    truncated = true;
+                    break;
+                }
+                nodes++;
+                explore(stack.pop(), stack);
+            }
+            return best;
+        }
+
+        private void explore(Node node, Deque<Node> stack) {
+            node.applyTo(lower, upper);
+
+            long[] remaining = model.remaining(lower);
+            if (remaining == null) return;
+            for (int j = 0; j < lower.length; j++) {
+                if (upper[j] < lower[j]) return;
+            }
+            if (System.nanoTime() > deadline) {
+                truncated = true;
+                return;
+            }
+
+            Relaxation relaxation = model.relax(lower, upper, remaining, simplex, deadline);
+            if (relaxation == null) {
+                truncated = true;
+                return;
+            }
+            if (!improves(relaxation.bound())) return;
+
+            double[] x = relaxation.solution();
+            tryRounding(x);
+
+            int branch = mostFractional(x);
+            if (branch < 0 || !improves(relaxation.bound())) return;
+
+            long floor = (long) Math.floor(x[branch]);
+            stack.push(new Node(node, branch, false, floor));
+            stack.push(new Node(node, branch, true, floor + 1));
+        }
+
+        private void tryRounding(double[] x) {
+            long[] candidate = new long[x.length];
+            for (int j = 0; j < x.length; j++) {
+                long rounded = (long) Math.floor(x[j] + INTEGRALITY_TOLERANCE);
+                candidate[j] = Math.min(Math.max(rounded, lower[j]), upper[j]);
+            }
+            if (model.remaining(candidate) == null) {
+                candidate = lower.clone();
+            }
+
+            BigDecimal value = model.fill(candidate, upper);
+            if (value.compareTo(bestValue) > 0) {
+                best = candidate;
+                bestValue = value;
+            }
+        }
+
+        private boolean improves(double bound) {
+            double incumbent = bestValue.doubleValue();
+            return bound > incumbent + EPSILON * Math.max(1.0, Math.abs(incumbent));
+        }
+
+        private int mostFractional(double[] x) {
+            int index = -1;
+            double closestToHalf = 0.5 - INTEGRALITY_TOLERANCE;
+            for (int j = 0; j < x.length; j++) {
+                double fraction = x[j] - Math.floor(x[j]);
+                double distance = Math.abs(fraction - 0.5);
+                if (distance < closestToHalf) {
+                    closestToHalf = distance;
+                    index = j;
+                }
+            }
+            return index;
+        }
+    }
+
+    private record Node(Node parent, int variable, boolean lowerBound, long bound) {
+
+        static final Node ROOT = new Node(null, -1, false, 0);
+
+        void applyTo(long[] lower, long[] upper) {
+            Arrays.fill(lower, 0);
+            Arrays.fill(upper, UNBOUNDED);
+            for (Node n = this; n.parent != null; n = n.parent) {
+                if (n.lowerBound) {
+                    lower[n.variable] = Math.max(lower[n.variable], n.bound);
+                } else {
+                    upper[n.variable] = Math.min(upper[n.variable], n.bound);
+                }
+            }
+        }
+    }
+
+    private record Relaxation(double bound, double[] solution) {}
+
+    private static final class Model {
+
+        private final CompiledCatalog catalog;
+        private final int[] products;
+        private final BigDecimal[] values;
+        private final long[] stock;
+        private final int[][] rows;
+        private final long[][] quantities;
+
+        private Model(CompiledCatalog catalog, int[] products, long[] stock, int[][] rows, long[][] quantities) {
+            this.catalog = catalog;
+            this.products = products;
+            this.stock = stock;
+            this.rows = rows;
+            this.quantities = quantities;
+            this.values = Arrays.stream(products).mapToObj(catalog::saleValue).toArray(BigDecimal[]::new);
+        }
+
+        static Model of(CompiledCatalog catalog) {
+            int[] rowIndex = new int[catalog.materialCount()];
+            Arrays.fill(rowIndex, -1);
+            List<Long> stock = new ArrayList<>();
+            List<Integer> candidates = new ArrayList<>();
+            List<int[]> rows = new ArrayList<>();
+            List<long[]> quantities = new ArrayList<>();
+
+            for (int product = 0; product < catalog.productCount(); product++) {
+                Map<Integer, Long> required = requiredByMaterial(catalog, product);
+                if (required == null || catalog.saleValue(product).signum() <= 0) continue;
+
+                boolean producible = required.entrySet().stream()
+                        .allMatch(e -> catalog.stock(e.getKey()) >= e.getValue());
+                if (!producible) continue;
+
+                int[] productRows = new int[required.size()];
+                long[] productQuantities = new long[required.size()];
+                int k = 0;
+                for (Map.Entry<Integer, Long> entry : required.entrySet()) {
+                    int material = entry.getKey();
+                    if (rowIndex[material] < 0) {
+                        rowIndex[material] = stock.size();
+                        stock.add(catalog.stock(material));
+                    }
+                    productRows[k] = rowIndex[material];
+                    productQuantities[k] = entry.getValue();
+                    k++;
+                }
+
+                candidates.add(product);
+                rows.add(productRows);
+                quantities.add(productQuantities);
+            }
+
+            return new Model(
+                    catalog,
+                    candidates.stream().mapToInt(Integer::intValue).toArray(),
+                    stock.stream().mapToLong(Long::longValue).toArray(),
+                    rows.toArray(int[][]::new),
+                    quantities.toArray(long[][]::new));
+        }
+
+        private static Map<Integer, Long> requiredByMaterial(CompiledCatalog catalog, int product) {
+            if (catalog.compositionStart(product) == catalog.compositionEnd(product)) return null;
+
+            Map<Integer, Long> required = new LinkedHashMap<>();
+            for (int c = catalog.compositionStart(product); c < catalog.compositionEnd(product); c++) {
+                if (catalog.compositionRequired(c) <= 0) return null;
+                required.merge(catalog.compositionMaterial(c), catalog.compositionRequired(c), Math::addExact);
+            }
+            return required;
+        }
+
+        int size() {
+            return products.length;
+        }
+
+        long[] remaining(long[] x) {
+            long[] remaining = stock.clone();
+            try {
+                for (int j = 0; j < x.length; j++) {
+                    for (int k = 0; x[j] > 0 && k < rows[j].length; k++) {
+                        int row = rows[j][k];
+                        remaining[row] = Math.subtractExact(remaining[row], Math.multiplyExact(quantities[j][k], x[j]));
+                    }
+                }
+            } catch (ArithmeticException e) {
+                return null;
+            }
+
+            for (long r : remaining) {
+                if (r < 0) return null;
+            }
+            return remaining;
+        }
+
+        BigDecimal fill(long[] x, long[] upper) {
+            long[] remaining = remaining(x);
+            BigDecimal total = BigDecimal.ZERO;
+
+            for (int j = 0; j < x.length; j++) {
+                long units = Math.min(maxUnits(j, remaining), upper[j] - x[j]);
+                if (units > 0) {
+                    for (int k = 0; k < rows[j].length; k++) {
+                        remaining[rows[j][k]] -= quantities[j][k] * units;
+                    }
+                    x[j] += units;
+                }
+                total = total.add(values[j].multiply(BigDecimal.valueOf(x[j])));
+            }
+            return total;
+        }
+
+        private long maxUnits(int j, long[] remaining) {
+            long units = UNBOUNDED;
+            for (int k = 0; k < rows[j].length; k++) {
+                units = Math.min(units, remaining[rows[j][k]] / quantities[j][k]);
+            }
+            return units;
+        }
+
+        /**
+         * Loads the node's LP into the search's tableau straight from the sparse columns built
+         * once in {@link #of}: material rows against the remaining stock, plus one row per
+         * variable whose upper bound was branched on.
+         */
+        Relaxation relax(long[] lower, long[] upper, long[] remaining, Simplex simplex, long deadline) {
+            int[] free = IntStream.range(0, products.length)
+                    .filter(j -> upper[j] > lower[j])
+                    .toArray();
+            int bounded = (int) Arrays.stream(free).filter(j -> upper[j] != UNBOUNDED).count();
+            int m = stock.length;
+
+            simplex.reset(m + bounded, free.length);
+            for (int i = 0; i < m; i++) {
+                simplex.setBound(i, remaining[i]);
+            }
+            int extraRow = m;
+            for (int col = 0; col < free.length; col++) {
+                int j = free[col];
+                simplex.setObjective(col, values[j].doubleValue());
+                for (int k = 0; k < rows[j].length; k++) {
+                    simplex.setCoefficient(rows[j][k], col, quantities[j][k]);
+                }
+                if (upper[j] != UNBOUNDED) {
+                    simplex.setCoefficient(extraRow, col, 1.0);
+                    simplex.setBound(extraRow, upper[j] - lower[j]);
+                    extraRow++;
+                }
+            }
+
+            double[] y = simplex.maximize(deadline);
+            if (y == null) return null;
+
+            double[] x = new double[products.length];
+            double bound = 0;
+            for (int j = 0; j < products.length; j++) {
+                x[j] = lower[j];
+                bound += values[j].doubleValue() * lower[j];
+            }
+            for (int col = 0; col < free.length; col++) {
+                x[free[col]] += y[col];
+                bound += values[free[col]].doubleValue() * y[col];
+            }
+            return new Relaxation(bound, x);
+        }
+
+        ProductionSuggestionResponse toResponse(long[] x) {
+            long[] units = new long[catalog.productCount()];
+            for (int j = 0; j < x.length; j++) {
+                units[products[j]] = x[j];
+            }
+            return catalog.toResponse(units);
+        }
+    }
+
+    /**
+     * Dense primal simplex for max c.y s.t. A.y <= b, y >= 0 with A >= 0 and b >= 0,
+     * so the all-slack basis is feasible and no phase one is needed. One instance serves a
+     * whole search: the tableau lives in a flat buffer that is cleared per node and only
+     * reallocated when a node needs more room than any node before it.
+     */
+    static final class Simplex {
+
+        private double[] t = new double[0];
+        private int[] basis = new int[0];
+        private int rows;
+        private int vars;
+        private int width;
+
+        void reset(int rows, int vars) {
+            this.rows = rows;
+            this.vars = vars;
+            this.width = vars + rows + 1;
+
+            int size = (rows + 1) * width;
+            if (t.length < size) {
+                t = new double[size];
+            } else {
+                Arrays.fill(t, 0, size, 0.0);
+            }
+            if (basis.length < rows) {
+                basis = new int[rows];
+            }
+            for (int i = 0; i < rows; i++) {
+                t[i * width + vars + i] = 1.0;
+                basis[i] = vars + i;
+            }
+        }
+
+        void setCoefficient(int row, int var, double value) {
+            t[row * width + var] = value;
+        }
+
+        void setBound(int row, double value) {
+            t[row * width + width - 1] = Math.max(value, 0.0);
+        }
+
+        void setObjective(int var, double value) {
+            t[rows * width + var] = -value;
+        }
+
+        double[] maximize(long deadline) {
+            int cols = vars + rows;
+            long maxIterations = 50L * (rows + cols) + 1000;
+            int degenerate = 0;
+
+            for (long iteration = 0; ; iteration++) {
+                if (iteration > maxIterations) return null;
+                if ((iteration & 15) == 0 && System.nanoTime() > deadline) return null;
+
+                boolean bland = degenerate > rows;
+                int enter = enteringColumn(cols, bland);
+                if (enter < 0) break;
+
+                int leave = leavingRow(enter, bland);
+                if (leave < 0) return null;
+
+                degenerate = t[leave * width + cols] < EPSILON ? degenerate + 1 : 0;
+                pivot(leave, enter);
+                basis[leave] = enter;
+            }
+
+            double[] y = new double[vars];
+            for (int i = 0; i < rows; i++) {
+                if (basis[i] < vars) y[basis[i]] = Math.max(t[i * width + cols], 0.0);
+            }
+            return y;
+        }
+
+        private int enteringColumn(int cols, boolean bland) {
+            int objective = rows * width;
+            int enter = -1;
+            double mostNegative = -EPSILON;
+            for (int j = 0; j < cols; j++) {
+                if (t[objective + j] < mostNegative) {
+                    if (bland) return j;
+                    mostNegative = t[objective + j];
+                    enter = j;
+                }
+            }
+            return enter;
+        }
+
+        private int leavingRow(int enter, boolean bland) {
+            int rhs = width - 1;
+            int leave = -1;
+            double minRatio = Double.POSITIVE_INFINITY;
+
+            for (int i = 0; i < rows; i++) {
+                double coefficient = t[i * width + enter];
+                if (coefficient <= EPSILON) continue;
+
+                double ratio = t[i * width + rhs] / coefficient;
+                if (ratio < minRatio - EPSILON
+                        || (bland && Math.abs(ratio - minRatio) <= EPSILON && basis[i] < basis[leave])) {
+                    minRatio = ratio;
+                    leave = i;
+                }
+            }
+            return leave;
+        }
+
+        private void pivot(int leave, int enter) {
+            int pivotRow = leave * width;
+            double pivot = t[pivotRow + enter];
+            for (int j = 0; j < width; j++) {
+                t[pivotRow + j] /= pivot;
+            }
+
+            for (int i = 0; i <= rows; i++) {
+                if (i == leave) continue;
+                int row = i * width;
+                double factor = t[row + enter];
+                if (factor == 0.0) continue;
+                for (int j = 0; j < width; j++) {
+                    t[row + j] -= factor * t[pivotRow + j];
+                }
+                t[row + enter] = 0.0;
+            }
+        }
+    }
+}
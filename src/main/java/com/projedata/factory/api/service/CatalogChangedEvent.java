@@ -0,0 +1,4 @@
+package com.projedata.factory.api.service;
+
+public record CatalogChangedEvent(String reason) {
+}
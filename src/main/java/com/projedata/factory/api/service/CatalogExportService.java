@@ -0,0 +1,136 @@
+package com.projedata.factory.api.service;
+
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import com.projedata.factory.api.dto.ProductResponse;
+import com.projedata.factory.api.dto.RawMaterialResponse;
+import com.projedata.factory.api.repository.CatalogExportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectWriter;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes the catalog straight from a database cursor to the response stream. Output is
+ * buffered in small blocks, so a slow client blocks the cursor instead of growing the heap.
+ * The raw material CSV uses the same header and columns that CsvImportService reads.
+ */
+@Slf4j
+@Service
+public class CatalogExportService {
+
+    static final String[] RAW_MATERIAL_HEADER = {"code", "name", "stockQuantity", "unit"};
+    static final String[] PRODUCT_HEADER = {"productCode", "productName", "saleValue", "rawMaterialCode", "requiredQuantity"};
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CatalogExportRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations readOnlyTransaction;
+
+    @Autowired
+    public CatalogExportService(CatalogExportRepository repository, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this(repository, objectMapper, readOnly(transactionManager));
+    }
+
+    CatalogExportService(CatalogExportRepository repository, ObjectMapper objectMapper,
+                         TransactionOperations readOnlyTransaction) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = readOnlyTransaction;
+    }
+
+    public void writeProducts(ExportFormat format, OutputStream output) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(output, repository::streamProducts);
+            case CSV -> writeCsv(output, PRODUCT_HEADER, rows ->
+                    repository.streamProducts(product -> productRows(product, rows)));
+        }
+    }
+
+    public void writeRawMaterials(ExportFormat format, OutputStream output) throws IOException {
+        switch (format) {
+            case NDJSON -> writeNdjson(output, repository::streamRawMaterials);
+            case CSV -> writeCsv(output, RAW_MATERIAL_HEADER, rows ->
+                    repository.streamRawMaterials(material -> rows.accept(new String[]{
+                            material.code(),
+                            material.name(),
+                            plain(material.stockQuantity()),
+                            material.unit()
+                    })));
+        }
+    }
+
+    private <T> void writeNdjson(OutputStream output, Consumer<Consumer<T>> source) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(output, BUFFER_SIZE);
+        ObjectWriter writer = objectMapper.writer();
+        long[] rows = new long[1];
+
+        readOnlyTransaction.executeWithoutResult(status -> source.accept(item -> {
+            try {
+                buffered.write(writer.writeValueAsBytes(item));
+                buffered.write('\n');
+                rows[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        buffered.flush();
+        log.info("NDJSON export finished — rows: {}", rows[0]);
+    }
+
+    private void writeCsv(OutputStream output, String[] header, Consumer<Consumer<String[]>> source)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ICSVWriter csv = new CSVWriter(writer);
+        long[] rows = new long[1];
+
+        csv.writeNext(header, false);
+        readOnlyTransaction.executeWithoutResult(status -> source.accept(row -> {
+            csv.writeNext(row, false);
+            // CSVWriter swallows IOExceptions; stop the cursor as soon as the client is gone
+            if (csv.getException() != null) {
+                throw new UncheckedIOException(csv.getException());
+            }
+            rows[0]++;
+        }));
+        csv.flush();
+        log.info("CSV export finished — rows: {}", rows[0]);
+    }
+
+    private void productRows(ProductResponse product, Consumer<String[]> rows) {
+        if (product.compositions().isEmpty()) {
+            rows.accept(new String[]{product.code(), product.name(), plain(product.saleValue()), "", ""});
+            return;
+        }
+
+        for (ProductResponse.Composition composition : product.compositions()) {
+            rows.accept(new String[]{
+                    product.code(),
+                    product.name(),
+                    plain(product.saleValue()),
+                    composition.rawMaterialCode(),
+                    plain(composition.requiredQuantity())
+            });
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
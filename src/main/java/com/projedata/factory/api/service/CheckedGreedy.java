@@ -0,0 +1,57 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.exception.QuantityOverflowException;
+import java.math.BigInteger;
+
+/**
+ * Greedy plan in BigInteger arithmetic, for {@linkplain CompiledCatalog#isWide() wide} catalogs
+ * whose scaled quantities do not fit in a long. Same order and result as the long path; a
+ * product that could be made more than {@code Long.MAX_VALUE} times fails the request instead
+ * of being clamped.
+ */
+final class CheckedGreedy {
+
+    private CheckedGreedy() {
+    }
+
+    static long[] plan(CompiledCatalog catalog) {
+        BigInteger[] stock = new BigInteger[catalog.materialCount()];
+        for (int m = 0; m < stock.length; m++) {
+            stock[m] = catalog.wideStock(m);
+        }
+
+        long[] units = new long[catalog.productCount()];
+        for (int rank = 0; rank < units.length; rank++) {
+            int product = catalog.productAt(rank);
+            BigInteger maxUnits = maxProducible(catalog, product, stock);
+            if (maxUnits.signum() <= 0) continue;
+
+            if (maxUnits.bitLength() >= Long.SIZE) {
+                throw new QuantityOverflowException("Product " + catalog.productCode(product) + " could be produced "
+                        + maxUnits + " times, more than the largest supported quantity (" + Long.MAX_VALUE + ")");
+            }
+            for (int c = catalog.compositionStart(product); c < catalog.compositionEnd(product); c++) {
+                int material = catalog.compositionMaterial(c);
+                stock[material] = stock[material].subtract(catalog.wideRequired(c).multiply(maxUnits));
+            }
+            units[product] = maxUnits.longValue();
+        }
+        return units;
+    }
+
+    private static BigInteger maxProducible(CompiledCatalog catalog, int product, BigInteger[] stock) {
+        int start = catalog.compositionStart(product);
+        int end = catalog.compositionEnd(product);
+        if (start == end) return BigInteger.ZERO;
+
+        BigInteger min = null;
+        for (int c = start; c < end; c++) {
+            BigInteger required = catalog.wideRequired(c);
+            if (required.signum() == 0) return BigInteger.ZERO;
+
+            BigInteger units = stock[catalog.compositionMaterial(c)].divide(required);
+            if (min == null || units.compareTo(min) < 0) min = units;
+        }
+        return min;
+    }
+}
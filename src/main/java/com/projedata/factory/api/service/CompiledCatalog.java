@@ -0,0 +1,461 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Immutable, array-based view of the catalog used by the optimizers.
+ * Products are stored in greedy order (saleValue descending, stable), compositions
+ * in CSR layout, raw material ids are mapped to dense indexes and every quantity is
+ * held as a long scaled by 10^scale, where scale is the largest scale in the catalog,
+ * so the integer arithmetic is exact. An inverted index lists, for every material, the
+ * products that consume it in ascending order. Stock patches share all structural arrays.
+ * What-if overlays share them too and keep their stock and saleValue overrides on the side.
+ * <p>
+ * When a scaled quantity does not fit in a long the catalog is compiled {@linkplain #isWide() wide}:
+ * stock and required quantities are kept as BigInteger, the long accessors are not available and
+ * the optimizers fall back to {@link CheckedGreedy}.
+ */
+public final class CompiledCatalog {
+
+    private final long[] productIds;
+    private final String[] productCodes;
+    private final String[] productNames;
+    private final BigDecimal[] saleValues;
+    private final int[] compositionStart;
+    private final int[] compositionMaterial;
+    private final long[] compositionRequired;
+    private final long[] materialIds;
+    private final Map<Long, Integer> materialIndex;
+    private final int[] materialProductStart;
+    private final int[] materialProducts;
+    private final long[] stock;
+    private final int scale;
+    private final Map<Integer, Long> stockOverrides;
+    private final Map<Integer, BigDecimal> saleValueOverrides;
+    private final int[] order;
+    private final Wide wide;
+
+    private CompiledCatalog(long[] productIds, String[] productCodes, String[] productNames,
+                            BigDecimal[] saleValues, int[] compositionStart, int[] compositionMaterial,
+                            long[] compositionRequired, long[] materialIds, Map<Long, Integer> materialIndex,
+                            int[] materialProductStart, int[] materialProducts, long[] stock, int scale, Wide wide) {
+        this(productIds, productCodes, productNames, saleValues, compositionStart, compositionMaterial,
+                compositionRequired, materialIds, materialIndex, materialProductStart, materialProducts, stock, scale,
+                Map.of(), Map.of(), null, wide);
+    }
+
+    private CompiledCatalog(long[] productIds, String[] productCodes, String[] productNames,
+                            BigDecimal[] saleValues, int[] compositionStart, int[] compositionMaterial,
+                            long[] compositionRequired, long[] materialIds, Map<Long, Integer> materialIndex,
+                            int[] materialProductStart, int[] materialProducts, long[] stock, int scale,
+                            Map<Integer, Long> stockOverrides, Map<Integer, BigDecimal> saleValueOverrides,
+                            int[] order, Wide wide) {
+        this.productIds = productIds;
+        this.productCodes = productCodes;
+        this.productNames = productNames;
+        this.saleValues = saleValues;
+        this.compositionStart = compositionStart;
+        this.compositionMaterial = compositionMaterial;
+        this.compositionRequired = compositionRequired;
+        this.materialIds = materialIds;
+        this.materialIndex = materialIndex;
+        this.materialProductStart = materialProductStart;
+        this.materialProducts = materialProducts;
+        this.stock = stock;
+        this.scale = scale;
+        this.stockOverrides = stockOverrides;
+        this.saleValueOverrides = saleValueOverrides;
+        this.order = order;
+        this.wide = wide;
+    }
+
+    public static CompiledCatalog compile(List<Product> products) {
+        List<Product> sorted = products.stream()
+                .sorted(Comparator.comparing(Product::getSaleValue).reversed())
+                .toList();
+
+        int scale = 0;
+        int compositions = 0;
+        Map<Long, Integer> materialIndex = new HashMap<>();
+        List<RawMaterial> materials = new ArrayList<>();
+
+        for (Product product : sorted) {
+            for (ProductComposition c : product.getCompositions()) {
+                RawMaterial rawMaterial = c.getRawMaterial();
+                if (materialIndex.putIfAbsent(rawMaterial.getId(), materials.size()) == null) {
+                    materials.add(rawMaterial);
+                    scale = Math.max(scale, rawMaterial.getStockQuantity().scale());
+                }
+                scale = Math.max(scale, c.getRequiredQuantity().scale());
+                compositions++;
+            }
+        }
+
+        int n = sorted.size();
+        long[] productIds = new long[n];
+        String[] productCodes = new String[n];
+        String[] productNames = new String[n];
+        BigDecimal[] saleValues = new BigDecimal[n];
+        int[] compositionStart = new int[n + 1];
+        int[] compositionMaterial = new int[compositions];
+        BigDecimal[] required = new BigDecimal[compositions];
+
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            Product product = sorted.get(j);
+            productIds[j] = product.getId() == null ? 0 : product.getId();
+            productCodes[j] = product.getCode();
+            productNames[j] = product.getName();
+            saleValues[j] = product.getSaleValue();
+            compositionStart[j] = k;
+
+            for (ProductComposition c : product.getCompositions()) {
+                compositionMaterial[k] = materialIndex.get(c.getRawMaterial().getId());
+                required[k] = c.getRequiredQuantity();
+                k++;
+            }
+        }
+        compositionStart[n] = k;
+
+        long[] materialIds = new long[materials.size()];
+        BigDecimal[] available = new BigDecimal[materials.size()];
+        for (int i = 0; i < materials.size(); i++) {
+            materialIds[i] = materials.get(i).getId();
+            available[i] = materials.get(i).getStockQuantity();
+        }
+
+        long[] compositionRequired = new long[compositions];
+        long[] stock = new long[materials.size()];
+        Wide wide = null;
+        try {
+            for (int c = 0; c < compositions; c++) {
+                compositionRequired[c] = toScaled(required[c], scale);
+            }
+            for (int m = 0; m < stock.length; m++) {
+                stock[m] = toScaled(available[m], scale);
+            }
+        } catch (ArithmeticException e) {
+            compositionRequired = null;
+            stock = null;
+            wide = new Wide(toScaledWide(required, scale), toScaledWide(available, scale));
+        }
+
+        int[][] inverted = invert(compositionStart, compositionMaterial, materials.size());
+
+        return new CompiledCatalog(productIds, productCodes, productNames, saleValues, compositionStart,
+                compositionMaterial, compositionRequired, materialIds, Map.copyOf(materialIndex),
+                inverted[0], inverted[1], stock, scale, wide);
+    }
+
+    private static BigInteger[] toScaledWide(BigDecimal[] quantities, int scale) {
+        BigInteger[] scaled = new BigInteger[quantities.length];
+        for (int i = 0; i < quantities.length; i++) {
+            scaled[i] = quantities[i].setScale(scale).unscaledValue();
+        }
+        return scaled;
+    }
+
+    private static int[][] invert(int[] compositionStart, int[] compositionMaterial, int materialCount) {
+        int products = compositionStart.length - 1;
+        int[] lastProduct = new int[materialCount];
+        Arrays.fill(lastProduct, -1);
+
+        int[] start = new int[materialCount + 1];
+        for (int j = 0; j < products; j++) {
+            for (int c = compositionStart[j]; c < compositionStart[j + 1]; c++) {
+                int material = compositionMaterial[c];
+                if (lastProduct[material] != j) {
+                    lastProduct[material] = j;
+                    start[material + 1]++;
+                }
+            }
+        }
+        for (int m = 0; m < materialCount; m++) {
+            start[m + 1] += start[m];
+        }
+
+        int[] next = Arrays.copyOf(start, materialCount);
+        int[] consumers = new int[start[materialCount]];
+        Arrays.fill(lastProduct, -1);
+        for (int j = 0; j < products; j++) {
+            for (int c = compositionStart[j]; c < compositionStart[j + 1]; c++) {
+                int material = compositionMaterial[c];
+                if (lastProduct[material] != j) {
+                    lastProduct[material] = j;
+                    consumers[next[material]++] = j;
+                }
+            }
+        }
+        return new int[][]{start, consumers};
+    }
+
+    public Optional<CompiledCatalog> withStock(Map<Long, BigDecimal> stockByMaterialId) {
+        if (isWide()) return Optional.empty();
+
+        long[] patched = stock.clone();
+        try {
+            for (Map.Entry<Long, BigDecimal> entry : stockByMaterialId.entrySet()) {
+                int material = materialIndex(entry.getKey());
+                if (material >= 0) {
+                    patched[material] = toScaled(entry.getValue(), scale);
+                }
+            }
+        } catch (ArithmeticException e) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new CompiledCatalog(productIds, productCodes, productNames, saleValues, compositionStart,
+                compositionMaterial, compositionRequired, materialIds, materialIndex, materialProductStart,
+                materialProducts, patched, scale, null));
+    }
+
+    /**
+     * What-if view of this catalog: stock (already scaled, see {@link #toScaled(BigDecimal)})
+     * keyed by material index and sale values keyed by product index replace the current ones.
+     * Nothing is copied but the overrides themselves and, when a sale value changes, the
+     * greedy order of the products. Overlays are evaluated by {@link ProductionOptimizer#optimizeScenario}.
+     */
+    public CompiledCatalog withOverlay(Map<Integer, Long> stockByMaterial, Map<Integer, BigDecimal> saleValueByProduct) {
+        if (isOverlay() || isWide()) {
+            throw new IllegalStateException("Overlays are built on a long-scaled snapshot catalog");
+        }
+        return new CompiledCatalog(productIds, productCodes, productNames, saleValues, compositionStart,
+                compositionMaterial, compositionRequired, materialIds, materialIndex, materialProductStart,
+                materialProducts, stock, scale, Map.copyOf(stockByMaterial), Map.copyOf(saleValueByProduct),
+                saleValueByProduct.isEmpty() ? null : greedyOrder(saleValueByProduct), null);
+    }
+
+    // Products whose value did not change keep their relative order, so the new order is a
+    // merge of the untouched products with the re-sorted overridden ones.
+    private int[] greedyOrder(Map<Integer, BigDecimal> overrides) {
+        Comparator<Integer> byValue = Comparator.<Integer, BigDecimal>comparing(
+                j -> overrides.getOrDefault(j, saleValues[j])).reversed().thenComparing(j -> j);
+        Integer[] moved = overrides.keySet().stream().sorted(byValue).toArray(Integer[]::new);
+
+        int[] merged = new int[productIds.length];
+        int next = 0;
+        int m = 0;
+        for (int j = 0; j < productIds.length; j++) {
+            if (overrides.containsKey(j)) continue;
+            while (m < moved.length && byValue.compare(moved[m], j) < 0) {
+                merged[next++] = moved[m++];
+            }
+            merged[next++] = j;
+        }
+        while (m < moved.length) {
+            merged[next++] = moved[m++];
+        }
+        return merged;
+    }
+
+    public boolean isWide() {
+        return wide != null;
+    }
+
+    public boolean isOverlay() {
+        return order != null || !stockOverrides.isEmpty();
+    }
+
+    public long toScaled(BigDecimal quantity) {
+        return toScaled(quantity, scale);
+    }
+
+    private static long toScaled(BigDecimal quantity, int scale) {
+        return quantity.setScale(scale).unscaledValue().longValueExact();
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public int materialCount() {
+        return materialIds.length;
+    }
+
+    public int compositionCount() {
+        return compositionMaterial.length;
+    }
+
+    public long productId(int product) {
+        return productIds[product];
+    }
+
+    public String productCode(int product) {
+        return productCodes[product];
+    }
+
+    public String productName(int product) {
+        return productNames[product];
+    }
+
+    public BigDecimal saleValue(int product) {
+        if (saleValueOverrides.isEmpty()) return saleValues[product];
+        return saleValueOverrides.getOrDefault(product, saleValues[product]);
+    }
+
+    /** Product at the given position of the greedy order (saleValue descending). */
+    public int productAt(int rank) {
+        return order == null ? rank : order[rank];
+    }
+
+    public int compositionStart(int product) {
+        return compositionStart[product];
+    }
+
+    public int compositionEnd(int product) {
+        return compositionStart[product + 1];
+    }
+
+    public int compositionMaterial(int composition) {
+        return compositionMaterial[composition];
+    }
+
+    public long compositionRequired(int composition) {
+        return compositionRequired[composition];
+    }
+
+    /**
+     * Whole units of the product that {@code stock} (scaled, by material index) covers; 0 for a
+     * product without compositions or with a zero requirement.
+     */
+    public long maxProducible(int product, long[] stock) {
+        int start = compositionStart[product];
+        int end = compositionStart[product + 1];
+        if (start == end) return 0;
+
+        long min = Long.MAX_VALUE;
+        for (int c = start; c < end; c++) {
+            long required = compositionRequired[c];
+            if (required == 0) return 0;
+            min = Math.min(min, stock[compositionMaterial[c]] / required);
+        }
+        return min;
+    }
+
+    long maxProducible(int product, StockOverlay stock) {
+        int start = compositionStart[product];
+        int end = compositionStart[product + 1];
+        if (start == end) return 0;
+
+        long min = Long.MAX_VALUE;
+        for (int c = start; c < end; c++) {
+            long required = compositionRequired[c];
+            if (required == 0) return 0;
+            min = Math.min(min, stock.get(compositionMaterial[c]) / required);
+        }
+        return min;
+    }
+
+    /** As {@link #maxProducible(int, long[])}, with the stock each composition saw, indexed by composition. */
+    long maxProducibleByComposition(int product, long[] stockByComposition) {
+        int start = compositionStart[product];
+        int end = compositionStart[product + 1];
+        if (start == end) return 0;
+
+        long min = Long.MAX_VALUE;
+        for (int c = start; c < end; c++) {
+            long required = compositionRequired[c];
+            if (required == 0) return 0;
+            min = Math.min(min, stockByComposition[c] / required);
+        }
+        return Math.max(min, 0);
+    }
+
+    /** Takes {@code units} of the product out of {@code stock}; negative units put them back. */
+    public void consume(int product, long units, long[] stock) {
+        for (int c = compositionStart[product]; c < compositionStart[product + 1]; c++) {
+            stock[compositionMaterial[c]] -= compositionRequired[c] * units;
+        }
+    }
+
+    void consume(int product, long units, StockOverlay stock) {
+        for (int c = compositionStart[product]; c < compositionStart[product + 1]; c++) {
+            stock.subtract(compositionMaterial[c], compositionRequired[c] * units);
+        }
+    }
+
+    /** Required quantity of a composition, scaled; available on wide and long catalogs alike. */
+    public BigInteger wideRequired(int composition) {
+        return wide != null ? wide.required[composition] : BigInteger.valueOf(compositionRequired[composition]);
+    }
+
+    public long materialId(int material) {
+        return materialIds[material];
+    }
+
+    public int materialIndex(long materialId) {
+        return materialIndex.getOrDefault(materialId, -1);
+    }
+
+    public int materialProductStart(int material) {
+        return materialProductStart[material];
+    }
+
+    public int materialProductEnd(int material) {
+        return materialProductStart[material + 1];
+    }
+
+    public int materialProduct(int index) {
+        return materialProducts[index];
+    }
+
+    public boolean sameStructureAs(CompiledCatalog other) {
+        return other != null && compositionStart == other.compositionStart && scale == other.scale
+                && !isOverlay() && !other.isOverlay() && !isWide() && !other.isWide();
+    }
+
+    public long stock(int material) {
+        if (stockOverrides.isEmpty()) return stock[material];
+        return stockOverrides.getOrDefault(material, stock[material]);
+    }
+
+    /** Stock of a material, scaled; available on wide and long catalogs alike. */
+    public BigInteger wideStock(int material) {
+        return wide != null ? wide.stock[material] : BigInteger.valueOf(stock(material));
+    }
+
+    public long[] stockCopy() {
+        long[] copy = stock.clone();
+        stockOverrides.forEach((material, quantity) -> copy[material] = quantity);
+        return copy;
+    }
+
+    public int scale() {
+        return scale;
+    }
+
+    public BigDecimal toQuantity(long scaled) {
+        return BigDecimal.valueOf(scaled, scale);
+    }
+
+    public ProductionSuggestionResponse toResponse(long[] units) {
+        List<ProductionSuggestionResponse.ProductionItem> items = new ArrayList<>();
+        BigDecimal totalValue = BigDecimal.ZERO;
+
+        for (int rank = 0; rank < units.length; rank++) {
+            int j = productAt(rank);
+            if (units[j] <= 0) continue;
+
+            BigDecimal saleValue = saleValue(j);
+            BigDecimal itemTotal = saleValue.multiply(BigDecimal.valueOf(units[j]));
+            items.add(new ProductionSuggestionResponse.ProductionItem(
+                    productCodes[j],
+                    productNames[j],
+                    units[j],
+                    saleValue,
+                    itemTotal
+            ));
+            totalValue = totalValue.add(itemTotal);
+        }
+        return new ProductionSuggestionResponse(items, totalValue);
+    }
+
+    private record Wide(BigInteger[] required, BigInteger[] stock) {
+    }
+}
@@ -2,65 +2,335 @@ package com.projedata.factory.api.service;
 
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import com.projedata.factory.api.config.ImportProperties;
 import com.projedata.factory.api.dto.CsvImportResponse;
 import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.ImportLimitExceededException;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
 import com.projedata.factory.api.repository.RawMaterialRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CsvImportService {
 
+    private static final int CHARSET_PROBE_BYTES = 64 * 1024;
+
     private final RawMaterialRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RawMaterialJdbcRepository jdbcRepository;
+    private final ImportProperties properties;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    private final StockRetry stockRetry;
+    private final ExecutorService csvParseExecutor;
 
-    @Transactional
+    /**
+     * The file only carries absolute values, so an import that loses an optimistic-lock race
+     * with another writer is rolled back and re-applied from the start.
+     */
     public CsvImportResponse importRawMaterials(MultipartFile file) {
-        List<String> errors = new ArrayList<>();
-        int imported = 0;
-        int skipped = 0;
-        int lineNumber = 1;
+        return stockRetry.execute("csv-import",
+                () -> transactionOperations.execute(status -> importRawMaterialsOnce(file)));
+    }
 
-        try (CSVReader reader = new CSVReader(buildReader(file))) {
+    private CsvImportResponse importRawMaterialsOnce(MultipartFile file) {
+        long startedAt = System.nanoTime();
+        ImportTally tally = new ImportTally();
+        Set<Long> updatedIds = new HashSet<>();
+
+        readRows(open(file), tally, material -> upsert(material, updatedIds));
+        publishStockChanges(updatedIds);
+        meterRegistry.counter("factory.import.rows", "result", "upserted").increment(tally.imported);
+
+        log.info("CSV import finished — imported: {}, skipped: {}", tally.imported, tally.skipped);
+        return tally.toResponse(startedAt);
+    }
+
+    @Transactional
+    public CsvImportResponse importRawMaterialsBatched(MultipartFile file, Integer requestedChunkSize) {
+        long startedAt = System.nanoTime();
+        int chunkSize = properties.resolveChunkSize(requestedChunkSize);
+        ImportTally tally = new ImportTally();
+        List<RawMaterial> chunk = new ArrayList<>(chunkSize);
+        Set<Long> updatedIds = new HashSet<>();
+
+        readRows(open(file), tally, material -> {
+            chunk.add(material);
+            if (chunk.size() == chunkSize) {
+                writeChunkTimed(chunk, updatedIds);
+                chunk.clear();
+            }
+        });
+        writeChunkTimed(chunk, updatedIds);
+        publishStockChanges(updatedIds);
+
+        CsvImportResponse response = tally.toResponse(startedAt);
+        log.info("Batched CSV import finished — imported: {}, skipped: {}, chunk size: {}, rows/s: {}",
+                tally.imported, tally.skipped, chunkSize, Math.round(response.rowsPerSecond()));
+        return response;
+    }
+
+    public void importRawMaterialsInChunks(InputStream input, ImportProgress progress) {
+        int chunkSize = properties.chunkSize();
+        List<RawMaterial> chunk = new ArrayList<>(chunkSize);
+
+        readRows(input, progress, material -> {
+            chunk.add(material);
+            if (chunk.size() == chunkSize) {
+                commitChunk(chunk, progress);
+                chunk.clear();
+            }
+        });
+        commitChunk(chunk, progress);
+    }
+
+    private void commitChunk(List<RawMaterial> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) return;
+
+        meterRegistry.timer("factory.import.chunk", "mode", "job").record(() ->
+                stockRetry.execute("import-chunk", () -> transactionOperations.execute(status -> {
+                    Set<Long> updatedIds = new HashSet<>();
+                    writeChunk(chunk, updatedIds);
+                    publishStockChanges(updatedIds);
+                    return chunk.size();
+                })));
+        progress.chunkCommitted(chunk.size());
+    }
+
+    private InputStream open(MultipartFile file) {
+        try {
+            return file.getInputStream();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to process CSV file: " + e.getMessage());
+        }
+    }
+
+    void readRows(InputStream input, ImportProgress progress, RowHandler handler) {
+        try (CSVReader reader = new CSVReader(buildReader(input))) {
 
             reader.skip(1);
-            String[] line;
-
-            while ((line = reader.readNext()) != null) {
-                lineNumber++;
-
-                try {
-                    RawMaterial material = parseLine(line, lineNumber);
-                    upsert(material);
-                    imported++;
-                } catch (IllegalArgumentException e) {
-                    log.warn("Skipping line {}: {}", lineNumber, e.getMessage());
-                    errors.add("Line " + lineNumber + ": " + e.getMessage());
-                    skipped++;
-                }
+            int workers = properties.parsing().resolvedWorkers();
+
+            if (workers > 1) {
+                readInParallel(reader, workers, progress, handler);
+            } else {
+                readSerially(reader, progress, handler);
             }
 
         } catch (CsvValidationException e) {
-            errors.add("Invalid CSV format: " + e.getMessage());
+            progress.failed("Invalid CSV format: " + e.getMessage());
+        } catch (ImportLimitExceededException e) {
+            log.warn("Rejecting CSV file: {}", e.getMessage());
+            throw e;
+        } catch (DataAccessException e) {
+            // a lost optimistic-lock race has to reach StockRetry and the 409 handler unwrapped
+            throw e;
         } catch (Exception e) {
             log.error("Failed to process CSV file", e);
             throw new RuntimeException("Failed to process CSV file: " + e.getMessage());
         }
+    }
+
+    private void readSerially(CSVReader reader, ImportProgress progress, RowHandler handler) throws Exception {
+        RowChunk chunk = readChunk(reader, 2);
+        while (true) {
+            apply(parse(chunk), progress, handler);
+            chunk.throwIfFailed();
+            if (chunk.size() == 0) return;
+            chunk = readChunk(reader, chunk.nextLine());
+        }
+    }
+
+    /*
+     * One reader thread cuts the file into chunks and hands them to the shared parser pool; the
+     * calling thread applies the parsed chunks strictly in file order, so line numbers,
+     * last-row-wins and the surrounding transaction behave exactly as in the serial path.
+     */
+    private void readInParallel(CSVReader reader, int workers, ImportProgress progress, RowHandler handler)
+            throws Exception {
+
+        BlockingQueue<Future<ParsedChunk>> pending = new ArrayBlockingQueue<>(workers * 2);
+
+        Thread readerThread = Thread.ofVirtual().name("csv-read").start(() -> {
+            Future<ParsedChunk> last = CompletableFuture.completedFuture(ParsedChunk.END);
+            try {
+                RowChunk chunk = readChunk(reader, 2);
+                while (chunk.size() > 0 || chunk.failure() != null) {
+                    RowChunk current = chunk;
+                    pending.put(csvParseExecutor.submit(() -> parse(current)));
+                    if (current.failure() != null) {
+                        last = CompletableFuture.failedFuture(current.failure());
+                        break;
+                    }
+                    chunk = readChunk(reader, chunk.nextLine());
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                last = CompletableFuture.failedFuture(e);
+            }
+
+            try {
+                pending.put(last);
+            } catch (InterruptedException ignored) {
+                // the writer already gave up
+            }
+        });
+
+        try {
+            ParsedChunk chunk;
+            while ((chunk = await(pending.take())) != ParsedChunk.END) {
+                apply(chunk, progress, handler);
+            }
+        } finally {
+            readerThread.interrupt();
+            readerThread.join();
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
 
-        log.info("CSV import finished — imported: {}, skipped: {}", imported, skipped);
-        return new CsvImportResponse(imported, skipped, errors);
+    private ParsedChunk await(Future<ParsedChunk> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
     }
 
-    private RawMaterial parseLine(String[] columns, int lineNumber) {
+    /*
+     * A read error ends the chunk instead of discarding it: the rows read before the bad line
+     * are still applied, then the failure surfaces just as the row-by-row loop reported it.
+     */
+    private RowChunk readChunk(CSVReader reader, int firstLine) {
+        int rowsPerTask = Math.max(1, properties.parsing().rowsPerTask());
+        List<String[]> rows = new ArrayList<>(rowsPerTask);
+        String[] line;
+
+        try {
+            while (rows.size() < rowsPerTask && (line = reader.readNext()) != null) {
+                if (firstLine - 2 + rows.size() >= properties.maxRows()) {
+                    throw new ImportLimitExceededException(
+                            "File exceeds the maximum of " + properties.maxRows() + " rows");
+                }
+                rows.add(line);
+            }
+        } catch (IOException | CsvValidationException e) {
+            return new RowChunk(firstLine, rows, e);
+        }
+        return new RowChunk(firstLine, rows, null);
+    }
+
+    private ParsedChunk parse(RowChunk chunk) {
+        int size = chunk.size();
+        RawMaterial[] materials = new RawMaterial[size];
+        String[] errors = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            try {
+                materials[i] = parseLine(chunk.rows().get(i), chunk.firstLine() + i);
+            } catch (IllegalArgumentException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+        return new ParsedChunk(chunk.firstLine(), materials, errors);
+    }
+
+    private void apply(ParsedChunk chunk, ImportProgress progress, RowHandler handler) {
+        int skipped = 0;
+
+        for (int i = 0; i < chunk.materials().length; i++) {
+            RawMaterial material = chunk.materials()[i];
+
+            if (material != null) {
+                handler.handle(material);
+                progress.imported();
+            } else {
+                int lineNumber = chunk.firstLine() + i;
+                log.warn("Skipping line {}: {}", lineNumber, chunk.errors()[i]);
+                progress.skipped("Line " + lineNumber + ": " + chunk.errors()[i]);
+                skipped++;
+            }
+        }
+
+        meterRegistry.counter("factory.import.rows", "result", "parsed").increment(chunk.materials().length - skipped);
+        meterRegistry.counter("factory.import.rows", "result", "skipped").increment(skipped);
+    }
+
+    // read back inside the transaction so the event carries the row versions these writes produced
+    private void publishStockChanges(Set<Long> updatedIds) {
+        if (!updatedIds.isEmpty()) {
+            repository.flush();
+            eventPublisher.publishEvent(new StockChangedEvent(jdbcRepository.findStockByIds(updatedIds)));
+        }
+    }
+
+    private void writeChunkTimed(List<RawMaterial> chunk, Set<Long> updatedIds) {
+        if (chunk.isEmpty()) return;
+        meterRegistry.timer("factory.import.chunk", "mode", "batch").record(() -> writeChunk(chunk, updatedIds));
+    }
+
+    private void writeChunk(List<RawMaterial> chunk, Set<Long> updatedIds) {
+        if (chunk.isEmpty()) return;
+
+        Map<String, RawMaterial> lastByCode = new LinkedHashMap<>();
+        chunk.forEach(material -> lastByCode.put(material.getCode(), material));
+
+        Map<String, Long> existingIds = jdbcRepository.findIdsByCodes(lastByCode.keySet());
+        List<RawMaterial> inserts = new ArrayList<>();
+        List<RawMaterial> updates = new ArrayList<>();
+
+        lastByCode.values().forEach(material -> {
+            Long id = existingIds.get(material.getCode());
+            if (id == null) {
+                inserts.add(material);
+            } else {
+                material.setId(id);
+                updates.add(material);
+                updatedIds.add(id);
+            }
+        });
+
+        jdbcRepository.batchUpdate(updates);
+        jdbcRepository.batchInsert(inserts);
+        meterRegistry.counter("factory.import.rows", "result", "upserted").increment(lastByCode.size());
+    }
+
+    RawMaterial parseLine(String[] columns, int lineNumber) {
         if (columns.length < 4) {
             throw new IllegalArgumentException(
                     "Expected 4 columns (code, name, stockQuantity, unit), got " + columns.length);
@@ -93,7 +363,7 @@ public class CsvImportService {
                 .build();
     }
 
-    private void upsert(RawMaterial incoming) {
+    private void upsert(RawMaterial incoming, Set<Long> updatedIds) {
         repository.findByCode(incoming.getCode())
                 .ifPresentOrElse(
                         existing -> {
@@ -101,38 +371,69 @@ public class CsvImportService {
                             existing.setStockQuantity(incoming.getStockQuantity());
                             existing.setUnit(incoming.getUnit());
                             repository.save(existing);
+                            updatedIds.add(existing.getId());
                         },
                         () -> repository.save(incoming)
                 );
     }
 
-    private InputStreamReader buildReader(MultipartFile file) throws Exception {
-        byte[] bytes = file.getBytes();
+    Reader buildReader(InputStream input) throws IOException {
+        return buildReader(input, properties.maxLineLength());
+    }
+
+    /**
+     * Detects the charset (BOM, then a UTF-8 probe of the first 64 KiB, else ISO-8859-1) and
+     * rejects any line longer than {@code maxLineLength} characters.
+     */
+    static Reader buildReader(InputStream input, int maxLineLength) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(input, CHARSET_PROBE_BYTES);
+        in.mark(CHARSET_PROBE_BYTES);
+        byte[] prefix = in.readNBytes(CHARSET_PROBE_BYTES);
+        in.reset();
 
-        if (bytes.length >= 3 &&
-                bytes[0] == (byte) 0xEF &&
-                bytes[1] == (byte) 0xBB &&
-                bytes[2] == (byte) 0xBF) {
+        if (prefix.length >= 3 &&
+                prefix[0] == (byte) 0xEF &&
+                prefix[1] == (byte) 0xBB &&
+                prefix[2] == (byte) 0xBF) {
 
-            return new InputStreamReader(
-                    new java.io.ByteArrayInputStream(bytes, 3, bytes.length - 3),
-                    StandardCharsets.UTF_8
-            );
+            in.skipNBytes(3);
+            return new LineLengthLimitingReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxLineLength);
         }
 
-        try {
-            String test = new String(bytes, StandardCharsets.UTF_8);
-            if (!test.contains("\uFFFD")) {
-                return new InputStreamReader(
-                        new java.io.ByteArrayInputStream(bytes),
-                        StandardCharsets.UTF_8
-                );
-            }
-        } catch (Exception ignored) {}
+        Charset charset = isUtf8(prefix) ? StandardCharsets.UTF_8 : StandardCharsets.ISO_8859_1;
+        return new LineLengthLimitingReader(new InputStreamReader(in, charset), maxLineLength);
+    }
+
+    private static boolean isUtf8(byte[] prefix) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+        // endOfInput=false: a multi-byte sequence cut at the end of the prefix is not an error
+        return !decoder.decode(ByteBuffer.wrap(prefix), CharBuffer.allocate(prefix.length), false).isError();
+    }
+
+    @FunctionalInterface
+    interface RowHandler {
+        void handle(RawMaterial material);
+    }
+
+    private record RowChunk(int firstLine, List<String[]> rows, Exception failure) {
+
+        void throwIfFailed() throws Exception {
+            if (failure != null) throw failure;
+        }
+
+        int size() {
+            return rows.size();
+        }
+
+        int nextLine() {
+            return firstLine + rows.size();
+        }
+    }
 
-        return new InputStreamReader(
-                new java.io.ByteArrayInputStream(bytes),
-                StandardCharsets.ISO_8859_1
-        );
+    private record ParsedChunk(int firstLine, RawMaterial[] materials, String[] errors) {
+        static final ParsedChunk END = new ParsedChunk(0, new RawMaterial[0], new String[0]);
     }
 }
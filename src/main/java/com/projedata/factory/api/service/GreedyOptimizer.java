@@ -0,0 +1,157 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Greedy plan in saleValue order. The last plan is kept together with the stock each
+ * composition saw when its product was evaluated; when the next catalog only differs in
+ * stock, only products that consume a changed material are re-evaluated, and a product
+ * whose units change marks its own materials as changed for the products after it.
+ * The result is identical to a full recompute. Quantities are longs end to end; a catalog
+ * whose scaled quantities overflow a long is planned by {@link CheckedGreedy} instead.
+ */
+@Slf4j
+@Component
+public class GreedyOptimizer implements ProductionOptimizer {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ThreadLocal<StockOverlay> scenarioStock = ThreadLocal.withInitial(StockOverlay::new);
+    private Plan last;
+
+    @Override
+    public OptimizationStrategy strategy() {
+        return OptimizationStrategy.GREEDY;
+    }
+
+    @Override
+    public ProductionSuggestionResponse optimize(CompiledCatalog catalog){
+        lock.lock();
+        try {
+            if (last != null && last.catalog == catalog) {
+                return last.response;
+            }
+            if (catalog.isWide()) {
+                last = null;
+                return catalog.toResponse(CheckedGreedy.plan(catalog));
+            }
+
+            if (last != null && last.catalog.sameStructureAs(catalog)) {
+                replan(last, catalog);
+            } else {
+                last = plan(catalog);
+            }
+            return last.response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Full greedy pass over a what-if overlay, in the overlay's own saleValue order. Leaves the
+     * cached plan alone and consumes stock through a per-thread {@link StockOverlay}, so
+     * scenarios can run in parallel without copying the stock.
+     */
+    @Override
+    public ProductionSuggestionResponse optimizeScenario(CompiledCatalog catalog) {
+        StockOverlay stock = scenarioStock.get().reset(catalog);
+        try {
+            long[] units = new long[catalog.productCount()];
+            for (int rank = 0; rank < units.length; rank++) {
+                int product = catalog.productAt(rank);
+                long maxUnits = catalog.maxProducible(product, stock);
+                if (maxUnits <= 0) continue;
+
+                catalog.consume(product, maxUnits, stock);
+                units[product] = maxUnits;
+            }
+            return catalog.toResponse(units);
+        } finally {
+            stock.release();
+        }
+    }
+
+    private Plan plan(CompiledCatalog catalog) {
+        long[] availableStock = catalog.stockCopy();
+        long[] units = new long[catalog.productCount()];
+        long[] stockBefore = new long[catalog.compositionCount()];
+
+        for (int product = 0; product < units.length; product++) {
+            for (int c = catalog.compositionStart(product); c < catalog.compositionEnd(product); c++) {
+                stockBefore[c] = availableStock[catalog.compositionMaterial(c)];
+            }
+
+            long maxUnits = catalog.maxProducible(product, availableStock);
+
+            if (maxUnits > 0){
+                catalog.consume(product, maxUnits, availableStock);
+                units[product] = maxUnits;
+            }
+        }
+        return new Plan(catalog, units, stockBefore);
+    }
+
+    private void replan(Plan plan, CompiledCatalog catalog) {
+        long[] delta = new long[catalog.materialCount()];
+        BitSet pending = new BitSet(catalog.productCount());
+
+        for (int m = 0; m < delta.length; m++) {
+            delta[m] = catalog.stock(m) - plan.catalog.stock(m);
+            if (delta[m] != 0) markConsumers(catalog, m, 0, pending);
+        }
+
+        int evaluated = 0;
+        for (int product = pending.nextSetBit(0); product >= 0; product = pending.nextSetBit(product + 1)) {
+            evaluated++;
+            int start = catalog.compositionStart(product);
+            int end = catalog.compositionEnd(product);
+
+            for (int c = start; c < end; c++) {
+                plan.stockBefore[c] += delta[catalog.compositionMaterial(c)];
+            }
+
+            long change = catalog.maxProducibleByComposition(product, plan.stockBefore) - plan.units[product];
+            if (change == 0) continue;
+
+            plan.units[product] += change;
+            for (int c = start; c < end; c++) {
+                int material = catalog.compositionMaterial(c);
+                boolean wasUnchanged = delta[material] == 0;
+                delta[material] -= catalog.compositionRequired(c) * change;
+                if (wasUnchanged && delta[material] != 0) markConsumers(catalog, material, product + 1, pending);
+            }
+        }
+
+        plan.rebind(catalog);
+        log.debug("Greedy plan updated incrementally — products re-evaluated: {} of {}",
+                evaluated, catalog.productCount());
+    }
+
+    private void markConsumers(CompiledCatalog catalog, int material, int fromProduct, BitSet pending) {
+        for (int i = catalog.materialProductStart(material); i < catalog.materialProductEnd(material); i++) {
+            int product = catalog.materialProduct(i);
+            if (product >= fromProduct) pending.set(product);
+        }
+    }
+
+    private static final class Plan {
+        private final long[] units;
+        private final long[] stockBefore;
+        private CompiledCatalog catalog;
+        private ProductionSuggestionResponse response;
+
+        Plan(CompiledCatalog catalog, long[] units, long[] stockBefore) {
+            this.units = units;
+            this.stockBefore = stockBefore;
+            rebind(catalog);
+        }
+
+        void rebind(CompiledCatalog catalog) {
+            this.catalog = catalog;
+            this.response = catalog.toResponse(units);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ImportJobResponse;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one asynchronous CSV import. Written by the worker thread and read
+ * by pollers; counters are atomics and at most {@code maxErrors} messages are kept.
+ */
+public final class ImportJob implements ImportProgress {
+
+    private final UUID id = UUID.randomUUID();
+    private final String fileName;
+    private final long totalBytes;
+    private final int maxErrors;
+    private final Instant submittedAt = Instant.now();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile String failure;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    ImportJob(String fileName, long totalBytes, int maxErrors) {
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+        this.maxErrors = maxErrors;
+    }
+
+    public UUID id() {
+        return id;
+    }
+
+    public ImportJobStatus status() {
+        return status;
+    }
+
+    Instant finishedAt() {
+        return finishedAt;
+    }
+
+    InputStream track(InputStream input) {
+        return new FilterInputStream(input) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) bytesRead.incrementAndGet();
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) bytesRead.addAndGet(n);
+                return n;
+            }
+        };
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    /** Ends a run the importer returned from; a reported format failure fails the job. */
+    void finish() {
+        finishedAt = Instant.now();
+        status = failure == null ? ImportJobStatus.COMPLETED : ImportJobStatus.FAILED;
+    }
+
+    void fail(String message) {
+        failure = message;
+        finishedAt = Instant.now();
+        status = ImportJobStatus.FAILED;
+    }
+
+    @Override
+    public void imported() {
+        imported.incrementAndGet();
+    }
+
+    @Override
+    public void skipped(String error) {
+        skipped.incrementAndGet();
+        recordError(error);
+    }
+
+    @Override
+    public void failed(String error) {
+        failure = error;
+        recordError(error);
+    }
+
+    @Override
+    public void chunkCommitted(int rows) {
+        committed.addAndGet(rows);
+    }
+
+    private void recordError(String error) {
+        if (errorCount.incrementAndGet() <= maxErrors) {
+            errors.add(error);
+        }
+    }
+
+    public ImportJobResponse toResponse() {
+        long rows = imported.get() + skipped.get();
+        Instant end = finishedAt == null ? Instant.now() : finishedAt;
+        double seconds = startedAt == null ? 0 : Duration.between(startedAt, end).toNanos() / 1_000_000_000.0;
+
+        return new ImportJobResponse(
+                id,
+                status,
+                fileName,
+                rows,
+                imported.get(),
+                skipped.get(),
+                committed.get(),
+                errorCount.get(),
+                List.copyOf(errors),
+                failure,
+                seconds > 0 ? rows / seconds : 0,
+                etaSeconds(seconds),
+                submittedAt,
+                startedAt,
+                finishedAt
+        );
+    }
+
+    private Long etaSeconds(double elapsedSeconds) {
+        if (status != ImportJobStatus.RUNNING) {
+            return status == ImportJobStatus.COMPLETED ? 0L : null;
+        }
+        long read = bytesRead.get();
+        if (read == 0 || totalBytes <= 0) return null;
+
+        double fraction = Math.min(1.0, (double) read / totalBytes);
+        return Math.round(elapsedSeconds * (1 - fraction) / fraction);
+    }
+}
@@ -0,0 +1,137 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.dto.ImportJobResponse;
+import com.projedata.factory.api.exception.ImportCapacityExceededException;
+import com.projedata.factory.api.exception.ResourceNotFoundException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Runs CSV imports in the background on a bounded pool of virtual threads. The upload
+ * is spooled to a temp file because the multipart body is gone once the request ends.
+ * A submission first reserves a worker or queue slot, so when both are busy it is rejected
+ * with 429 before anything is written to disk.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+
+    private final CsvImportService csvImportService;
+    private final ImportProperties.Jobs properties;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore slots;
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(CsvImportService csvImportService, ImportProperties properties) {
+        this.csvImportService = csvImportService;
+        this.properties = properties.jobs();
+
+        int workers = Math.max(1, this.properties.maxConcurrent());
+        this.slots = new Semaphore(workers + Math.max(0, this.properties.queueDepth()));
+
+        // the semaphore bounds the backlog; the queue only has to hold what it admitted
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                Thread.ofVirtual().name("csv-import-", 0).factory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public ImportJobResponse submit(MultipartFile file) {
+        evictExpired();
+
+        if (!slots.tryAcquire()) {
+            throw new ImportCapacityExceededException("Import capacity exceeded, try again later");
+        }
+
+        Path spooled = null;
+        ImportJob job = null;
+        try {
+            spooled = spool(file);
+            job = new ImportJob(file.getOriginalFilename(), file.getSize(), properties.maxErrors());
+            jobs.put(job.id(), job);
+
+            ImportJob queued = job;
+            Path input = spooled;
+            executor.execute(() -> run(queued, input));
+        } catch (RuntimeException e) {
+            slots.release();
+            if (job != null) jobs.remove(job.id());
+            if (spooled != null) delete(spooled);
+            if (e instanceof RejectedExecutionException) {
+                throw new ImportCapacityExceededException("Import capacity exceeded, try again later");
+            }
+            throw e;
+        }
+
+        log.info("Import job {} queued — file: {}, bytes: {}", job.id(), file.getOriginalFilename(), file.getSize());
+        return job.toResponse();
+    }
+
+    public ImportJobResponse find(UUID id) {
+        evictExpired();
+
+        ImportJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job", id);
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, Path spooled) {
+        job.start();
+        try (InputStream input = job.track(Files.newInputStream(spooled))) {
+            csvImportService.importRawMaterialsInChunks(input, job);
+            job.finish();
+            ImportJobResponse result = job.toResponse();
+            if (result.status() == ImportJobStatus.FAILED) {
+                log.warn("Import job {} failed — {}", job.id(), result.failure());
+            } else {
+                log.info("Import job {} finished — imported: {}, skipped: {}, rows/s: {}",
+                        job.id(), result.recordsImported(), result.recordsSkipped(), Math.round(result.rowsPerSecond()));
+            }
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.id(), e);
+            job.fail(e.getMessage());
+        } finally {
+            delete(spooled);
+            slots.release();
+        }
+    }
+
+    private Path spool(MultipartFile file) {
+        try {
+            Path spooled = Files.createTempFile("raw-materials-import-", ".csv");
+            file.transferTo(spooled);
+            return spooled;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store CSV file: " + e.getMessage());
+        }
+    }
+
+    private void delete(Path spooled) {
+        try {
+            Files.deleteIfExists(spooled);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled import file {}", spooled, e);
+        }
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(properties.retention());
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(cutoff));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
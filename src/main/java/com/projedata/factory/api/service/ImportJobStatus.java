@@ -0,0 +1,8 @@
+package com.projedata.factory.api.service;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,12 @@
+package com.projedata.factory.api.service;
+
+public interface ImportProgress {
+
+    void imported();
+
+    void skipped(String error);
+
+    void failed(String error);
+
+    default void chunkCommitted(int rows) {}
+}
@@ -0,0 +1,35 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.CsvImportResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class ImportTally implements ImportProgress {
+
+    private final List<String> errors = new ArrayList<>();
+    int imported;
+    int skipped;
+
+    @Override
+    public void imported() {
+        imported++;
+    }
+
+    @Override
+    public void skipped(String error) {
+        errors.add(error);
+        skipped++;
+    }
+
+    @Override
+    public void failed(String error) {
+        errors.add(error);
+    }
+
+    CsvImportResponse toResponse(long startedAt) {
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        double rowsPerSecond = seconds > 0 ? (imported + skipped) / seconds : 0;
+        return new CsvImportResponse(imported, skipped, errors, rowsPerSecond);
+    }
+}
@@ -0,0 +1,44 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.exception.ImportLimitExceededException;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+
+class LineLengthLimitingReader extends FilterReader {
+
+    private final int maxLineLength;
+    private int currentLineLength;
+
+    LineLengthLimitingReader(Reader in, int maxLineLength) {
+        super(in);
+        this.maxLineLength = maxLineLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c >= 0) track((char) c);
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        for (int i = offset; i < offset + read; i++) {
+            track(buffer[i]);
+        }
+        return read;
+    }
+
+    private void track(char c) {
+        if (c == '\n' || c == '\r') {
+            currentLineLength = 0;
+            return;
+        }
+        if (++currentLineLength > maxLineLength) {
+            throw new ImportLimitExceededException("Line exceeds the maximum length of " + maxLineLength + " characters");
+        }
+    }
+}
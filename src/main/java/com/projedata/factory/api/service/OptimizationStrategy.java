@@ -0,0 +1,7 @@
+package com.projedata.factory.api.service;
+
+public enum OptimizationStrategy {
+    GREEDY,
+    EXACT,
+    PORTFOLIO
+}
@@ -0,0 +1,77 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads a horizon plan over periods. Receipts arrive at the start of their period and unused
+ * stock carries forward; each period makes, in greedy order, as much of every product's remaining
+ * target as its stock allows. The targets were solved against the stock available by the last
+ * period, so whatever is still pending always fits there.
+ */
+final class PeriodScheduler {
+
+    private PeriodScheduler() {
+    }
+
+    /**
+     * @param receipts scaled quantities keyed by material index, one map per period
+     * @param targets  units per product index for the whole horizon
+     */
+    static List<ProductionSuggestionResponse> schedule(CompiledCatalog catalog, List<Map<Integer, Long>> receipts,
+                                                       long[] targets) {
+        long[] stock = catalog.stockCopy();
+        long[] remaining = targets.clone();
+        long[] produced = new long[catalog.productCount()];
+
+        int[] pending = new int[catalog.productCount()];
+        int pendingCount = 0;
+        for (int rank = 0; rank < pending.length; rank++) {
+            int product = catalog.productAt(rank);
+            if (remaining[product] > 0) pending[pendingCount++] = product;
+        }
+
+        List<ProductionSuggestionResponse> periods = new ArrayList<>(receipts.size());
+        int[] made = new int[pending.length];
+        for (Map<Integer, Long> received : receipts) {
+            // cannot overflow: the horizon total of every material was checked when the targets were solved
+            received.forEach((material, quantity) -> stock[material] += quantity);
+
+            int madeCount = 0;
+            int kept = 0;
+            for (int i = 0; i < pendingCount; i++) {
+                int product = pending[i];
+                long units = Math.min(remaining[product], catalog.maxProducible(product, stock));
+                if (units > 0) {
+                    catalog.consume(product, units, stock);
+                    produced[product] = units;
+                    remaining[product] -= units;
+                    made[madeCount++] = product;
+                }
+                if (remaining[product] > 0) pending[kept++] = product;
+            }
+            pendingCount = kept;
+
+            periods.add(catalog.toResponse(produced));
+            for (int i = 0; i < madeCount; i++) {
+                produced[made[i]] = 0;
+            }
+        }
+        return periods;
+    }
+
+    /** Units per product index of a plan solved on this catalog or an overlay of it. */
+    static long[] unitsOf(CompiledCatalog catalog, ProductionSuggestionResponse plan) {
+        Map<String, Integer> byCode = new HashMap<>();
+        for (int j = 0; j < catalog.productCount(); j++) {
+            byCode.put(catalog.productCode(j), j);
+        }
+
+        long[] units = new long[catalog.productCount()];
+        plan.suggestions().forEach(item -> units[byCode.get(item.productCode())] = item.quantityToProduce());
+        return units;
+    }
+}
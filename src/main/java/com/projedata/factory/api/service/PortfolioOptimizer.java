@@ -0,0 +1,318 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+/**
+ * Runs a portfolio of heuristics in parallel on the same read-only catalog and returns the
+ * plan with the highest total value, naming the heuristic that produced it. Plain saleValue
+ * order is always part of the portfolio and is waited for past the deadline, so the result
+ * is never worse than GREEDY; the other heuristics are dropped if they miss the time budget.
+ */
+@Slf4j
+@Component
+public class PortfolioOptimizer implements ProductionOptimizer {
+
+    static final String VALUE = "value";
+    static final String BOTTLENECK = "bottleneck";
+    static final String DENSITY = "density";
+    static final String RANDOM_RESTARTS = "random-restarts";
+    static final String LOCAL_SEARCH = "local-search";
+
+    private final OptimizerProperties.Portfolio properties;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+
+    public PortfolioOptimizer(OptimizerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties.portfolio();
+        this.meterRegistry = meterRegistry;
+        this.pool = new ForkJoinPool(this.properties.resolvedParallelism());
+    }
+
+    @Override
+    public OptimizationStrategy strategy() {
+        return OptimizationStrategy.PORTFOLIO;
+    }
+
+    @Override
+    public ProductionSuggestionResponse optimize(CompiledCatalog catalog) {
+        if (catalog.isWide()) {
+            // the heuristics work in long arithmetic; the checked pass is plain value order
+            return catalog.toResponse(CheckedGreedy.plan(catalog)).withStrategy(VALUE);
+        }
+
+        long deadline = System.nanoTime() + properties.timeBudget().toNanos();
+        Heuristics heuristics = new Heuristics(catalog, deadline);
+
+        Map<String, Callable<long[]>> portfolio = new LinkedHashMap<>();
+        portfolio.put(VALUE, heuristics::byValue);
+        portfolio.put(BOTTLENECK, heuristics::byBottleneck);
+        portfolio.put(DENSITY, heuristics::byDensity);
+        portfolio.put(RANDOM_RESTARTS, () -> heuristics.randomRestarts(properties.restarts()));
+        portfolio.put(LOCAL_SEARCH, heuristics::localSearch);
+
+        Map<String, ForkJoinTask<long[]>> running = new LinkedHashMap<>();
+        portfolio.forEach((name, heuristic) -> running.put(name, pool.submit(heuristic)));
+
+        // ties go to the earlier heuristic, so an equal plan is still reported as plain value order
+        ProductionSuggestionResponse best = null;
+        String winner = null;
+        for (Map.Entry<String, ForkJoinTask<long[]>> entry : running.entrySet()) {
+            long[] units = await(entry.getKey(), entry.getValue(), deadline);
+            if (units == null) continue;
+
+            ProductionSuggestionResponse plan = catalog.toResponse(units);
+            log.debug("Portfolio heuristic '{}' — value: {}", entry.getKey(), plan.totalValue());
+            if (best == null || plan.totalValue().compareTo(best.totalValue()) > 0) {
+                best = plan;
+                winner = entry.getKey();
+            }
+        }
+
+        meterRegistry.counter("factory.optimize.portfolio.wins", "heuristic", winner).increment();
+        return best.withStrategy(winner);
+    }
+
+    private long[] await(String name, ForkJoinTask<long[]> task, long deadline) {
+        try {
+            if (name.equals(VALUE)) return task.get();
+            return task.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the searches check the deadline themselves, this only drops tasks that never started
+            task.cancel(false);
+            log.debug("Portfolio heuristic '{}' missed the deadline", name);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the optimization portfolio", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Portfolio heuristic '" + name + "' failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * The heuristics share the catalog and a few per-product scores, and each works on its own
+     * copy of the stock. All of them fill products greedily in some order; they differ in the order.
+     */
+    private static final class Heuristics {
+
+        private static final double NOISE = 0.3;
+        private static final double MIN_GAIN = 1e-6;
+        private static final long SEED = 1L;
+
+        private final CompiledCatalog catalog;
+        private final long deadline;
+        private final int size;
+        private final double[] value;
+        private final double[] density;
+        private final double[] bottleneck;
+
+        Heuristics(CompiledCatalog catalog, long deadline) {
+            this.catalog = catalog;
+            this.deadline = deadline;
+            this.size = catalog.productCount();
+            this.value = new double[size];
+            this.density = new double[size];
+            this.bottleneck = new double[size];
+
+            for (int j = 0; j < size; j++) {
+                value[j] = catalog.saleValue(j).doubleValue();
+
+                // share of each material's stock one unit uses: summed for density, worst one for bottleneck
+                double usage = 0;
+                double peak = 0;
+                for (int c = catalog.compositionStart(j); c < catalog.compositionEnd(j); c++) {
+                    double share = (double) catalog.compositionRequired(c)
+                            / Math.max(catalog.stock(catalog.compositionMaterial(c)), 1);
+                    usage += share;
+                    peak = Math.max(peak, share);
+                }
+                density[j] = usage > 0 ? value[j] / usage : 0;
+                bottleneck[j] = peak > 0 ? value[j] / peak : 0;
+            }
+        }
+
+        long[] byValue() {
+            int[] order = new int[size];
+            for (int rank = 0; rank < size; rank++) {
+                order[rank] = catalog.productAt(rank);
+            }
+            return fill(order, catalog.stockCopy());
+        }
+
+        long[] byBottleneck() {
+            return fill(order(bottleneck), catalog.stockCopy());
+        }
+
+        long[] byDensity() {
+            return fill(order(density), catalog.stockCopy());
+        }
+
+        /** Density order with each score scaled by log-normal noise; a fixed seed keeps runs repeatable. */
+        long[] randomRestarts(int restarts) {
+            Random random = new Random(SEED);
+            long[] best = null;
+            double bestValue = -1;
+
+            for (int restart = 0; restart < restarts && System.nanoTime() < deadline; restart++) {
+                double[] score = new double[size];
+                for (int j = 0; j < size; j++) {
+                    score[j] = density[j] * Math.exp(NOISE * random.nextGaussian());
+                }
+                long[] units = fill(order(score), catalog.stockCopy());
+                double total = total(units);
+                if (total > bestValue) {
+                    best = units;
+                    bestValue = total;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Starts from the density plan and keeps applying the first improving move until none is
+         * left or the deadline passes. A move gives back one or all units of a product and refills
+         * the products that consume the released materials, in density order.
+         */
+        long[] localSearch() {
+            int[] order = order(density);
+            int[] rank = new int[size];
+            for (int r = 0; r < size; r++) {
+                rank[order[r]] = r;
+            }
+
+            long[] stock = catalog.stockCopy();
+            long[] units = fill(order, stock);
+            Moves moves = new Moves(order, rank, units, stock);
+
+            boolean improved = true;
+            while (improved && System.nanoTime() < deadline) {
+                improved = false;
+                for (int j = 0; j < size && System.nanoTime() < deadline; j++) {
+                    if (units[j] == 0) continue;
+                    if (moves.tryRelease(j, 1) || (units[j] > 1 && moves.tryRelease(j, units[j]))) {
+                        improved = true;
+                    }
+                }
+            }
+            return units;
+        }
+
+        private long[] fill(int[] order, long[] stock) {
+            long[] units = new long[size];
+            for (int j : order) {
+                long maxUnits = catalog.maxProducible(j, stock);
+                if (maxUnits > 0) {
+                    catalog.consume(j, maxUnits, stock);
+                    units[j] = maxUnits;
+                }
+            }
+            return units;
+        }
+
+        private double total(long[] units) {
+            double total = 0;
+            for (int j = 0; j < size; j++) {
+                total += value[j] * units[j];
+            }
+            return total;
+        }
+
+        private static int[] order(double[] score) {
+            return IntStream.range(0, score.length).boxed()
+                    .sorted(Comparator.<Integer>comparingDouble(j -> score[j]).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        /** Scratch state of the local search, reused across moves. */
+        private final class Moves {
+
+            private final int[] order;
+            private final int[] rank;
+            private final long[] units;
+            private final long[] stock;
+            private final int[] seen;
+            private final int[] candidates;
+            private final int[] refilled;
+            private final long[] refilledUnits;
+            private int stamp;
+
+            Moves(int[] order, int[] rank, long[] units, long[] stock) {
+                this.order = order;
+                this.rank = rank;
+                this.units = units;
+                this.stock = stock;
+                this.seen = new int[size];
+                this.candidates = new int[size];
+                this.refilled = new int[size];
+                this.refilledUnits = new long[size];
+            }
+
+            boolean tryRelease(int product, long count) {
+                units[product] -= count;
+                catalog.consume(product, -count, stock);
+                double gain = -value[product] * count;
+
+                int found = 0;
+                stamp++;
+                for (int c = catalog.compositionStart(product); c < catalog.compositionEnd(product); c++) {
+                    int material = catalog.compositionMaterial(c);
+                    for (int k = catalog.materialProductStart(material); k < catalog.materialProductEnd(material); k++) {
+                        int consumer = catalog.materialProduct(k);
+                        if (consumer != product && seen[consumer] != stamp) {
+                            seen[consumer] = stamp;
+                            candidates[found++] = rank[consumer];
+                        }
+                    }
+                }
+                Arrays.sort(candidates, 0, found);
+
+                int changed = 0;
+                for (int i = 0; i < found; i++) {
+                    int consumer = order[candidates[i]];
+                    long extra = catalog.maxProducible(consumer, stock);
+                    if (extra <= 0) continue;
+
+                    catalog.consume(consumer, extra, stock);
+                    units[consumer] += extra;
+                    gain += value[consumer] * extra;
+                    refilled[changed] = consumer;
+                    refilledUnits[changed++] = extra;
+                }
+                if (gain > MIN_GAIN) return true;
+
+                for (int i = changed - 1; i >= 0; i--) {
+                    catalog.consume(refilled[i], -refilledUnits[i], stock);
+                    units[refilled[i]] -= refilledUnits[i];
+                }
+                catalog.consume(product, count, stock);
+                units[product] += count;
+                return false;
+            }
+        }
+    }
+}
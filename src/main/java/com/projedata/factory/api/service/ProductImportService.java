@@ -0,0 +1,310 @@
+package com.projedata.factory.api.service;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.dto.CsvImportResponse;
+import com.projedata.factory.api.dto.ProductResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.ImportLimitExceededException;
+import com.projedata.factory.api.repository.ProductJdbcRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upserts products together with their compositions. In CSV, consecutive rows with the
+ * same product code form one product (the layout written by the CSV export); in NDJSON
+ * every line is one product. Raw material codes are resolved through a single preloaded
+ * code-to-id map and every chunk is written with JDBC batches in its own transaction.
+ * A product with any invalid row is skipped as a whole.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final BigDecimal MIN_VALUE = new BigDecimal("0.01");
+
+    private final ProductJdbcRepository productJdbcRepository;
+    private final RawMaterialJdbcRepository rawMaterialJdbcRepository;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public CsvImportResponse importProducts(InputStream input, ExportFormat format, Integer requestedChunkSize) {
+        long startedAt = System.nanoTime();
+        ImportTally tally = new ImportTally();
+        Batch batch = new Batch(properties.resolveChunkSize(requestedChunkSize),
+                rawMaterialJdbcRepository.findAllIdsByCode(), tally);
+
+        try {
+            switch (format) {
+                case CSV -> readCsv(input, batch);
+                case NDJSON -> readNdjson(input, batch);
+            }
+        } catch (CsvValidationException e) {
+            tally.failed("Invalid CSV format: " + e.getMessage());
+        } catch (ImportLimitExceededException e) {
+            log.warn("Rejecting product file: {}", e.getMessage());
+            throw e;
+        } catch (IOException e) {
+            log.error("Failed to process product file", e);
+            throw new RuntimeException("Failed to process product file: " + e.getMessage());
+        }
+        batch.flush();
+
+        CsvImportResponse response = tally.toResponse(startedAt);
+        log.info("Product import finished — imported: {}, skipped: {}, chunk size: {}, rows/s: {}",
+                tally.imported, tally.skipped, batch.chunkSize, Math.round(response.rowsPerSecond()));
+        return response;
+    }
+
+    private void readCsv(InputStream input, Batch batch) throws IOException, CsvValidationException {
+        try (CSVReader reader = new CSVReader(CsvImportService.buildReader(input, properties.maxLineLength()))) {
+            reader.skip(1);
+
+            Draft draft = null;
+            String[] columns;
+            int lineNumber = 1;
+
+            while ((columns = reader.readNext()) != null) {
+                lineNumber++;
+                checkRowLimit(lineNumber - 1);
+
+                String code = columns.length > 0 ? columns[0].trim() : "";
+                if (draft == null || code.isEmpty() || !code.equals(draft.product.getCode())) {
+                    batch.add(draft);
+                    draft = startCsvProduct(columns, code, lineNumber);
+                }
+                if (columns.length > 3) {
+                    draft.addComposition(lineNumber, columns[3].trim(),
+                            columns.length > 4 ? columns[4].trim() : "", batch.rawMaterialIds);
+                }
+            }
+            batch.add(draft);
+        }
+    }
+
+    private Draft startCsvProduct(String[] columns, String code, int lineNumber) {
+        Draft draft = new Draft(lineNumber, Product.builder()
+                .code(code)
+                .compositions(new ArrayList<>())
+                .build());
+
+        if (columns.length < 3) {
+            draft.reject(lineNumber, "Expected at least 3 columns "
+                    + "(productCode, productName, saleValue), got " + columns.length);
+            return draft;
+        }
+
+        draft.describe(lineNumber, code, columns[1].trim(), columns[2].trim());
+        return draft;
+    }
+
+    private void readNdjson(InputStream input, Batch batch) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ProductResponse.class);
+
+        try (BufferedReader lines = new BufferedReader(
+                CsvImportService.buildReader(input, properties.maxDocumentLength()))) {
+
+            String line;
+            int lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                checkRowLimit(lineNumber);
+                batch.add(parseDocument(reader, line, lineNumber, batch.rawMaterialIds));
+            }
+        }
+    }
+
+    private Draft parseDocument(ObjectReader reader, String line, int lineNumber,
+                                Map<String, Long> rawMaterialIds) {
+        Draft draft = new Draft(lineNumber, Product.builder().compositions(new ArrayList<>()).build());
+
+        ProductResponse document;
+        try {
+            document = reader.readValue(line);
+        } catch (JacksonException e) {
+            draft.reject(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            return draft;
+        }
+
+        draft.describe(lineNumber, trim(document.code()), trim(document.name()),
+                document.saleValue() == null ? "" : document.saleValue().toPlainString());
+
+        if (document.compositions() != null) {
+            for (ProductResponse.Composition composition : document.compositions()) {
+                draft.addComposition(lineNumber, trim(composition.rawMaterialCode()),
+                        composition.requiredQuantity() == null ? "" : composition.requiredQuantity().toPlainString(),
+                        rawMaterialIds);
+            }
+        }
+        return draft;
+    }
+
+    private void checkRowLimit(long rows) {
+        if (rows > properties.maxRows()) {
+            throw new ImportLimitExceededException("File exceeds the maximum of " + properties.maxRows() + " rows");
+        }
+    }
+
+    private void writeChunk(List<Product> chunk) {
+        Map<String, Product> lastByCode = new LinkedHashMap<>();
+        chunk.forEach(product -> lastByCode.put(product.getCode(), product));
+
+        meterRegistry.timer("factory.import.chunk", "mode", "products").record(() ->
+                transactionOperations.executeWithoutResult(status -> {
+                    Map<String, Long> existingIds = productJdbcRepository.findIdsByCodes(lastByCode.keySet());
+                    List<Product> inserts = new ArrayList<>();
+                    List<Product> updates = new ArrayList<>();
+
+                    lastByCode.values().forEach(product -> {
+                        Long id = existingIds.get(product.getCode());
+                        if (id == null) {
+                            inserts.add(product);
+                        } else {
+                            product.setId(id);
+                            updates.add(product);
+                        }
+                    });
+
+                    productJdbcRepository.batchUpdate(updates);
+                    productJdbcRepository.batchInsert(inserts);
+
+                    productJdbcRepository.replaceCompositions(List.copyOf(lastByCode.values()));
+                    eventPublisher.publishEvent(new CatalogChangedEvent(lastByCode.size() + " products imported"));
+                }));
+
+        meterRegistry.counter("factory.import.rows", "result", "upserted").increment(lastByCode.size());
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    private static BigDecimal parsePositive(String raw, String field) {
+        try {
+            BigDecimal value = new BigDecimal(raw);
+            if (value.compareTo(MIN_VALUE) < 0) {
+                throw new IllegalArgumentException(field + " must be >= " + MIN_VALUE);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": '" + raw + "'");
+        }
+    }
+
+    /** One product being assembled from one or more input lines. */
+    private static final class Draft {
+
+        private final int firstLine;
+        private final Product product;
+        private final List<String> errors = new ArrayList<>();
+
+        Draft(int firstLine, Product product) {
+            this.firstLine = firstLine;
+            this.product = product;
+        }
+
+        void describe(int lineNumber, String code, String name, String saleValue) {
+            product.setCode(code);
+            product.setName(name);
+
+            if (code.isEmpty()) reject(lineNumber, "Product code is required");
+            if (name.isEmpty()) reject(lineNumber, "Product name is required");
+
+            try {
+                product.setSaleValue(parsePositive(saleValue, "sale value"));
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e.getMessage());
+            }
+        }
+
+        void addComposition(int lineNumber, String rawMaterialCode, String requiredQuantity,
+                            Map<String, Long> rawMaterialIds) {
+            if (rawMaterialCode.isEmpty() && requiredQuantity.isEmpty()) return;
+
+            Long rawMaterialId = rawMaterialIds.get(rawMaterialCode);
+            if (rawMaterialId == null) {
+                reject(lineNumber, "Raw material code '" + rawMaterialCode + "' not found");
+                return;
+            }
+
+            try {
+                product.getCompositions().add(ProductComposition.builder()
+                        .product(product)
+                        .rawMaterial(RawMaterial.builder().id(rawMaterialId).code(rawMaterialCode).build())
+                        .requiredQuantity(parsePositive(requiredQuantity, "required quantity"))
+                        .build());
+            } catch (IllegalArgumentException e) {
+                reject(lineNumber, e.getMessage());
+            }
+        }
+
+        void reject(int lineNumber, String error) {
+            errors.add("Line " + lineNumber + ": " + error);
+        }
+    }
+
+    private final class Batch {
+
+        private final int chunkSize;
+        private final Map<String, Long> rawMaterialIds;
+        private final ImportTally tally;
+        private final List<Product> chunk;
+
+        Batch(int chunkSize, Map<String, Long> rawMaterialIds, ImportTally tally) {
+            this.chunkSize = chunkSize;
+            this.rawMaterialIds = rawMaterialIds;
+            this.tally = tally;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void add(Draft draft) {
+            if (draft == null) return;
+
+            // same rule as ProductRequest; for an existing code it would also wipe the stored compositions
+            if (draft.errors.isEmpty() && draft.product.getCompositions().isEmpty()) {
+                draft.reject(draft.firstLine, "At least one composition is required");
+            }
+
+            if (!draft.errors.isEmpty()) {
+                log.warn("Skipping product starting at line {}: {}", draft.firstLine, draft.errors.getFirst());
+                tally.skipped(draft.errors.getFirst());
+                draft.errors.stream().skip(1).forEach(tally::failed);
+                return;
+            }
+
+            chunk.add(draft.product);
+            tally.imported();
+            if (chunk.size() == chunkSize) flush();
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) return;
+            writeChunk(chunk);
+            chunk.clear();
+        }
+    }
+}
@@ -1,19 +1,39 @@
 package com.projedata.factory.api.service;
 
+import com.projedata.factory.api.config.PaginationProperties;
+import com.projedata.factory.api.dto.PageResponse;
 import com.projedata.factory.api.dto.ProductCompositionRequest;
 import com.projedata.factory.api.dto.ProductRequest;
+import com.projedata.factory.api.dto.ProductResponse;
 import com.projedata.factory.api.entity.Product;
 import com.projedata.factory.api.entity.ProductComposition;
 import com.projedata.factory.api.entity.RawMaterial;
 import com.projedata.factory.api.exception.ResourceNotFoundException;
+import com.projedata.factory.api.exception.VersionConflictException;
+import com.projedata.factory.api.repository.ProductCompositionRepository;
 import com.projedata.factory.api.repository.ProductRepository;
 import com.projedata.factory.api.repository.RawMaterialRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
-import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,9 +41,33 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCompositionRepository compositionRepository;
+    private final PaginationProperties pagination;
+    private final EntityManager entityManager;
 
-    public List<Product> findAll() {
-        return productRepository.findAllWithCompositions();
+    public PageResponse<ProductResponse> findPage(Long cursor, Integer size, boolean expandCompositions) {
+        int pageSize = pagination.resolve(size);
+        List<ProductResponse> rows = productRepository.findPageAfter(cursor == null ? 0 : cursor, Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ProductResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        if (expandCompositions && !items.isEmpty()) {
+            items = withCompositions(items);
+        }
+
+        return new PageResponse<>(items, hasMore ? items.getLast().id() : null);
+    }
+
+    private List<ProductResponse> withCompositions(List<ProductResponse> products) {
+        Map<Long, List<ProductResponse.Composition>> byProduct = new HashMap<>();
+        compositionRepository.findRowsByProductIds(products.stream().map(ProductResponse::id).toList())
+                .forEach(row -> byProduct.computeIfAbsent(row.productId(), id -> new ArrayList<>())
+                        .add(row.toComposition()));
+
+        return products.stream()
+                .map(p -> p.withCompositions(byProduct.getOrDefault(p.id(), List.of())))
+                .toList();
     }
 
     public Product findById(Long id) {
@@ -40,42 +84,106 @@ public class ProductService {
                 .compositions(new ArrayList<>())
                 .build();
 
-        mappingCompositions(request.compositions(), product);
-        return productRepository.save(product);
+        Map<Long, RawMaterial> materials = resolveRawMaterials(request.compositions());
+        request.compositions().forEach(r -> product.getCompositions().add(
+                composition(product, materials.get(r.rawMaterialId()), r.requiredQuantity())));
+
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent("product " + saved.getId() + " created"));
+        return saved;
     }
 
     @Transactional
     public Product update(Long id, ProductRequest request){
         Product product = findById(id);
+        if (request.version() != null && !request.version().equals(product.getVersion())) {
+            throw new VersionConflictException("Product", id, product.getVersion());
+        }
+        Map<Long, RawMaterial> materials = resolveRawMaterials(request.compositions());
+
+        boolean changed = !Objects.equals(product.getCode(), request.code())
+                || !Objects.equals(product.getName(), request.name())
+                || product.getSaleValue().compareTo(request.saleValue()) != 0;
 
         product.setCode(request.code());
         product.setName(request.name());
         product.setSaleValue(request.saleValue());
-        product.getCompositions().clear();
 
-        mappingCompositions(request.compositions(), product);
-        return productRepository.save(product);
+        changed |= mergeCompositions(product, request.compositions(), materials);
+        if (!changed) {
+            return product;
+        }
+
+        // composition rows are separate entities; force the bump so a change to them alone still conflicts
+        entityManager.lock(product, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new CatalogChangedEvent("product " + id + " updated"));
+        return saved;
     }
 
     @Transactional
     public void delete(Long id) {
         findById(id);
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("product " + id + " deleted"));
     }
 
-    private void mappingCompositions(@NotEmpty List<ProductCompositionRequest> compositions, Product product) {
+    private Map<Long, RawMaterial> resolveRawMaterials(List<ProductCompositionRequest> compositions) {
+        Set<Long> ids = compositions.stream()
+                .map(ProductCompositionRequest::rawMaterialId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
 
-        compositions.forEach(r -> {
-            RawMaterial material = rawMaterialRepository.findById(r.rawMaterialId())
-                    .orElseThrow(() -> new ResourceNotFoundException("RawMaterial", r.rawMaterialId()));
+        Map<Long, RawMaterial> materials = rawMaterialRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(RawMaterial::getId, Function.identity()));
 
-            ProductComposition composition = ProductComposition.builder()
-                    .product(product)
-                    .rawMaterial(material)
-                    .requiredQuantity(r.requiredQuantity())
-                    .build();
+        List<Long> missing = ids.stream().filter(rawMaterialId -> !materials.containsKey(rawMaterialId)).toList();
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("RawMaterial", missing);
+        }
+        return materials;
+    }
+
+    /**
+     * Matches incoming lines to existing compositions by raw material (in order, for repeated
+     * materials) so unchanged rows are left alone; only changed quantities, new lines and
+     * removed lines reach the database. Returns whether anything changed.
+     */
+    private boolean mergeCompositions(Product product, List<ProductCompositionRequest> requested,
+                                      Map<Long, RawMaterial> materials) {
+        Map<Long, Deque<ProductComposition>> existing = new HashMap<>();
+        product.getCompositions().forEach(c -> existing
+                .computeIfAbsent(c.getRawMaterial().getId(), rawMaterialId -> new ArrayDeque<>())
+                .add(c));
+
+        boolean changed = false;
+        List<ProductComposition> added = new ArrayList<>();
+        for (ProductCompositionRequest r : requested) {
+            Deque<ProductComposition> candidates = existing.get(r.rawMaterialId());
+            ProductComposition match = candidates == null ? null : candidates.poll();
+
+            if (match == null) {
+                added.add(composition(product, materials.get(r.rawMaterialId()), r.requiredQuantity()));
+            } else if (match.getRequiredQuantity().compareTo(r.requiredQuantity()) != 0) {
+                match.setRequiredQuantity(r.requiredQuantity());
+                changed = true;
+            }
+        }
 
-            product.getCompositions().add(composition);
-        });
+        Set<ProductComposition> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        existing.values().forEach(removed::addAll);
+
+        if (!removed.isEmpty()) {
+            product.getCompositions().removeIf(removed::contains);
+        }
+        product.getCompositions().addAll(added);
+        return changed || !added.isEmpty() || !removed.isEmpty();
+    }
+
+    private ProductComposition composition(Product product, RawMaterial material, BigDecimal requiredQuantity) {
+        return ProductComposition.builder()
+                .product(product)
+                .rawMaterial(material)
+                .requiredQuantity(requiredQuantity)
+                .build();
     }
 }
@@ -1,85 +1,268 @@
 package com.projedata.factory.api.service;
 
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionPlanDiffResponse;
 import com.projedata.factory.api.dto.ProductionSuggestionResponse;
-import com.projedata.factory.api.entity.Product;
-import com.projedata.factory.api.entity.RawMaterial;
-import com.projedata.factory.api.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse.ProductionItem;
+import com.projedata.factory.api.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
-import java.util.*;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Solves production plans and keeps the last good plan per strategy. A plan solved against the
+ * current snapshot version is served from memory; once the snapshot moves on, the old plan is
+ * still served for up to max-stale while a single background refresh replaces it. Callers with
+ * nothing to serve wait, and concurrent callers share one in-flight computation.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductionOptimizationService {
 
-    private final ProductRepository productRepository;
+    static final int PLAN_HISTORY_SIZE = 16;
+
+    private final BomSnapshotCache snapshotCache;
+    private final List<ProductionOptimizer> optimizers;
+    private final OptimizerProperties.PlanCache properties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService refresher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("plan-refresh-", 0).factory());
+
+    private final Map<OptimizationStrategy, PlanHistory> history = new EnumMap<>(OptimizationStrategy.class);
+    private final Map<OptimizationStrategy, PlanSlot> slots = new EnumMap<>(OptimizationStrategy.class);
+
+    public ProductionOptimizationService(BomSnapshotCache snapshotCache, List<ProductionOptimizer> optimizers,
+                                         OptimizerProperties properties, MeterRegistry meterRegistry) {
+        this.snapshotCache = snapshotCache;
+        this.optimizers = optimizers;
+        this.properties = properties.planCache();
+        this.meterRegistry = meterRegistry;
+        for (OptimizationStrategy strategy : OptimizationStrategy.values()) {
+            slots.put(strategy, new PlanSlot());
+        }
+    }
 
     public ProductionSuggestionResponse optimize(){
-        List<Product> products = productRepository.findAllWithCompositions();
+        return optimize(OptimizationStrategy.GREEDY);
+    }
+
+    public ProductionSuggestionResponse optimize(OptimizationStrategy strategy){
+        return plan(strategy).response();
+    }
+
+    /** The cached plan for the strategy, possibly out of date by at most max-stale. */
+    public ProductionPlan plan(OptimizationStrategy strategy) {
+        return plan(strategy, true);
+    }
+
+    public ProductionPlanDiffResponse diff(OptimizationStrategy strategy, Long fromVersion) {
+        PlanHistory plans = historyOf(strategy);
+        Optional<ProductionPlan> requested = fromVersion == null ? Optional.empty() : plans.find(fromVersion);
+        ProductionPlan current = plan(strategy, false);
+
+        ProductionPlan base;
+        if (fromVersion != null) {
+            base = requested.or(() -> plans.find(fromVersion))
+                    .orElseThrow(() -> new ResourceNotFoundException("Production plan", fromVersion));
+        } else {
+            base = plans.before(current.version()).orElse(null);
+        }
+        return compare(base, current);
+    }
+
+    private ProductionPlan plan(OptimizationStrategy strategy, boolean allowStale) {
+        PlanSlot slot = slots.get(strategy);
+        ProductionPlan cached = slot.last.get();
+
+        if (cached != null) {
+            long version = snapshotCache.peek().map(BomSnapshot::version).orElse(-1L);
+            if (version == cached.version()) {
+                count(strategy, "hit");
+                return cached;
+            }
+            if (allowStale && slot.mayServeStale(properties.maxStale())) {
+                refreshInBackground(strategy, slot);
+                count(strategy, "stale");
+                return cached;
+            }
+        }
+
+        CompletableFuture<ProductionPlan> started = new CompletableFuture<>();
+        CompletableFuture<ProductionPlan> running = slot.inFlight.compareAndExchange(null, started);
+        if (running != null) {
+            count(strategy, "coalesced");
+            return await(running);
+        }
+        count(strategy, "miss");
+        refresh(strategy, slot, started);
+        return await(started);
+    }
+
+    private void refreshInBackground(OptimizationStrategy strategy, PlanSlot slot) {
+        CompletableFuture<ProductionPlan> started = new CompletableFuture<>();
+        if (slot.inFlight.compareAndExchange(null, started) != null) return;
+
+        started.whenComplete((plan, failure) -> {
+            if (failure != null) log.warn("Background refresh of the {} plan failed", strategy, failure);
+        });
+        try {
+            refresher.execute(() -> refresh(strategy, slot, started));
+        } catch (RejectedExecutionException e) {
+            slot.inFlight.compareAndSet(started, null);
+        }
+    }
+
+    private void refresh(OptimizationStrategy strategy, PlanSlot slot, CompletableFuture<ProductionPlan> future) {
+        try {
+            ProductionPlan plan = solve(strategy);
+            slot.offer(plan);
+            future.complete(plan);
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+        } finally {
+            slot.inFlight.compareAndSet(future, null);
+        }
+    }
 
-        Map<Long, BigDecimal> availableStock = buildStockSnapshot(products);
+    private ProductionPlan solve(OptimizationStrategy strategy) {
+        ProductionOptimizer optimizer = findOptimizer(strategy);
+        String tag = strategy.name().toLowerCase();
 
-        List<Product> sorted = products.stream()
-                .sorted(Comparator.comparing(Product::getSaleValue).reversed())
-                .toList();
+        ProductionPlan plan = meterRegistry.timer("factory.optimize", "strategy", tag).record(() -> {
+            BomSnapshot snapshot = meterRegistry.timer("factory.optimize.phase", "phase", "snapshot", "strategy", tag)
+                    .record(snapshotCache::get);
 
-        List<ProductionSuggestionResponse.ProductionItem> items = new ArrayList<>();
-        BigDecimal totalValue = BigDecimal.ZERO;
+            ProductionSuggestionResponse response = meterRegistry.timer("factory.optimize.phase", "phase", "solve", "strategy", tag)
+                    .record(() -> optimizer.optimize(snapshot.catalog()));
+            return new ProductionPlan(strategy, snapshot.version(), snapshot.builtAt(), response);
+        });
 
-        for(Product product : sorted){
-            int maxUnits = calculateMaxProducible(product, availableStock);
+        historyOf(strategy).record(plan);
+        return plan;
+    }
 
-            if (maxUnits > 0){
-                consumeStock(product, maxUnits, availableStock);
+    private void count(OptimizationStrategy strategy, String result) {
+        meterRegistry.counter("factory.optimize.plan.cache", "strategy", strategy.name().toLowerCase(), "result", result)
+                .increment();
+    }
+
+    private static ProductionPlan await(CompletableFuture<ProductionPlan> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
 
-                BigDecimal itemTotal = product.getSaleValue()
-                        .multiply(BigDecimal.valueOf(maxUnits));
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
 
-                items.add(new ProductionSuggestionResponse.ProductionItem(
-                        product.getCode(),
-                        product.getName(),
-                        maxUnits,
-                        product.getSaleValue(),
-                        itemTotal
-                ));
+    private ProductionPlanDiffResponse compare(ProductionPlan base, ProductionPlan current) {
+        Map<String, ProductionItem> previous = new LinkedHashMap<>();
+        if (base != null) {
+            base.response().suggestions().forEach(item -> previous.put(item.productCode(), item));
+        }
 
-                totalValue = totalValue.add(itemTotal);
+        List<ProductionPlanDiffResponse.ItemChange> changes = new ArrayList<>();
+        for (ProductionItem item : current.response().suggestions()) {
+            ProductionItem before = previous.remove(item.productCode());
+            long previousQuantity = before == null ? 0 : before.quantityToProduce();
+            if (previousQuantity != item.quantityToProduce()) {
+                changes.add(new ProductionPlanDiffResponse.ItemChange(item.productCode(), item.productName(),
+                        previousQuantity, item.quantityToProduce(), item.unitValue()));
             }
         }
-        return new ProductionSuggestionResponse(items, totalValue);
+        previous.values().forEach(item -> changes.add(new ProductionPlanDiffResponse.ItemChange(
+                item.productCode(), item.productName(), item.quantityToProduce(), 0, item.unitValue())));
+
+        return new ProductionPlanDiffResponse(
+                base == null ? null : base.version(),
+                current.version(),
+                base == null ? BigDecimal.ZERO : base.response().totalValue(),
+                current.response().totalValue(),
+                changes);
     }
 
-    private Map<Long, BigDecimal> buildStockSnapshot(List<Product> products){
-        Map<Long, BigDecimal> stock = new HashMap<>();
-        products.forEach(p -> p.getCompositions().forEach(c -> {
-            RawMaterial rawMaterial = c.getRawMaterial();
-            stock.putIfAbsent(rawMaterial.getId(), rawMaterial.getStockQuantity());
-        }));
+    private PlanHistory historyOf(OptimizationStrategy strategy) {
+        synchronized (history) {
+            return history.computeIfAbsent(strategy, s -> new PlanHistory());
+        }
+    }
 
-        return stock;
+    private ProductionOptimizer findOptimizer(OptimizationStrategy strategy) {
+        return optimizers.stream()
+                .filter(o -> o.strategy() == strategy)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported optimization strategy: " + strategy));
     }
 
-    int calculateMaxProducible(Product product, Map<Long, BigDecimal> stock){
-        if (product.getCompositions().isEmpty()) return 0;
+    /** Last good plan of one strategy and the computation currently replacing it, if any. */
+    private static final class PlanSlot {
+
+        private static final long FRESH = Long.MIN_VALUE;
 
-        return product.getCompositions().stream()
-                .mapToInt(c -> {
-                    BigDecimal available = stock.getOrDefault(
-                            c.getRawMaterial().getId(), BigDecimal.ZERO
-                    );
-                    if (c.getRequiredQuantity().compareTo(BigDecimal.ZERO) == 0) return 0;
-                    return available.divideToIntegralValue(c.getRequiredQuantity()).intValue();
-                })
-                .min()
-                .orElse(0);
+        private final AtomicReference<ProductionPlan> last = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<ProductionPlan>> inFlight = new AtomicReference<>();
+        private final AtomicLong staleSince = new AtomicLong(FRESH);
+
+        void offer(ProductionPlan plan) {
+            ProductionPlan kept = last.accumulateAndGet(plan, (held, offered) ->
+                    held == null || offered.version() >= held.version() ? offered : held);
+            if (kept == plan) staleSince.set(FRESH);
+        }
+
+        /** Starts the stale clock on the first call after the plan went out of date. */
+        boolean mayServeStale(Duration maxStale) {
+            if (!maxStale.isPositive()) return false;
+
+            long now = System.nanoTime();
+            staleSince.compareAndSet(FRESH, now);
+            return now - staleSince.get() <= maxStale.toNanos();
+        }
     }
 
-    private void consumeStock(Product product, int units, Map<Long, BigDecimal> stock){
-        product.getCompositions().forEach(c -> {
-            BigDecimal consumed = c.getRequiredQuantity()
-                    .multiply(BigDecimal.valueOf(units));
-            stock.merge(c.getRawMaterial().getId(), consumed.negate(), BigDecimal::add);
-        });
+    private static final class PlanHistory {
+
+        private final Deque<ProductionPlan> plans = new ArrayDeque<>();
+
+        synchronized void record(ProductionPlan plan) {
+            if (plans.stream().anyMatch(p -> p.version() == plan.version())) return;
+            if (plans.size() == PLAN_HISTORY_SIZE) plans.removeFirst();
+            plans.addLast(plan);
+        }
+
+        synchronized Optional<ProductionPlan> find(long version) {
+            return plans.stream().filter(p -> p.version() == version).findFirst();
+        }
+
+        synchronized Optional<ProductionPlan> before(long version) {
+            ProductionPlan previous = null;
+            for (ProductionPlan plan : plans) {
+                if (plan.version() >= version) break;
+                previous = plan;
+            }
+            return Optional.ofNullable(previous);
+        }
     }
 }
@@ -0,0 +1,18 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+
+public interface ProductionOptimizer {
+
+    OptimizationStrategy strategy();
+
+    ProductionSuggestionResponse optimize(CompiledCatalog catalog);
+
+    /**
+     * Solves a what-if overlay ({@link CompiledCatalog#withOverlay}). Called concurrently, so
+     * implementations that keep state between {@link #optimize} calls must not touch it here.
+     */
+    default ProductionSuggestionResponse optimizeScenario(CompiledCatalog catalog) {
+        return optimize(catalog);
+    }
+}
@@ -0,0 +1,19 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+
+import java.time.Instant;
+
+/** A solved plan and the BOM snapshot it was solved against. */
+public record ProductionPlan(
+        OptimizationStrategy strategy,
+        long version,
+        Instant builtAt,
+        ProductionSuggestionResponse response
+) {
+
+    /** Strategy plus snapshot version; the build time tells apart versions reissued after a restart. */
+    public String etag() {
+        return strategy.name().toLowerCase() + "-v" + version + "-" + Long.toString(builtAt.toEpochMilli(), 36);
+    }
+}
@@ -0,0 +1,244 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.dto.ScenarioRequest;
+import com.projedata.factory.api.dto.ScenarioRequest.PriceOverride;
+import com.projedata.factory.api.dto.ScenarioRequest.StockOverride;
+import com.projedata.factory.api.dto.ScenarioResponse;
+import com.projedata.factory.api.exception.InvalidScenarioException;
+import com.projedata.factory.api.exception.QuantityOverflowException;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates what-if scenarios against the current BOM snapshot without writing anything.
+ * Each scenario becomes a sparse overlay on the snapshot's catalog (only the overridden
+ * stock and sale values are stored) and all of them are solved in parallel on a dedicated
+ * fork-join pool. Overrides are validated up front, so a bad scenario fails the request
+ * with 400 before any solving starts.
+ */
+@Service
+public class ProductionScenarioService {
+
+    private final BomSnapshotCache snapshotCache;
+    private final Map<OptimizationStrategy, ProductionOptimizer> optimizers = new HashMap<>();
+    private final RawMaterialJdbcRepository rawMaterialJdbcRepository;
+    private final OptimizerProperties.Scenarios properties;
+    private final MeterRegistry meterRegistry;
+    private final ForkJoinPool pool;
+
+    public ProductionScenarioService(BomSnapshotCache snapshotCache, List<ProductionOptimizer> optimizers,
+                                     RawMaterialJdbcRepository rawMaterialJdbcRepository,
+                                     OptimizerProperties properties, MeterRegistry meterRegistry) {
+        this.snapshotCache = snapshotCache;
+        optimizers.forEach(optimizer -> this.optimizers.put(optimizer.strategy(), optimizer));
+        this.rawMaterialJdbcRepository = rawMaterialJdbcRepository;
+        this.properties = properties.scenarios();
+        this.meterRegistry = meterRegistry;
+        this.pool = new ForkJoinPool(this.properties.resolvedParallelism());
+    }
+
+    public ScenarioResponse evaluate(OptimizationStrategy strategy, ScenarioRequest request) {
+        ProductionOptimizer optimizer = optimizers.get(strategy);
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Unsupported optimization strategy: " + strategy);
+        }
+        if (request.scenarios().size() > properties.maxPerRequest()) {
+            throw new InvalidScenarioException("At most " + properties.maxPerRequest() + " scenarios per request, got "
+                    + request.scenarios().size());
+        }
+
+        return meterRegistry.timer("factory.optimize.scenarios", "strategy", strategy.name().toLowerCase()).record(() -> {
+            BomSnapshot snapshot = snapshotCache.get();
+            CompiledCatalog catalog = snapshot.catalog();
+            if (catalog.isWide()) {
+                throw new QuantityOverflowException("Scenarios are not available while catalog quantities exceed "
+                        + Long.MAX_VALUE + " at " + catalog.scale() + " decimal places");
+            }
+            List<CompiledCatalog> overlays = new Resolver(catalog, request.scenarios()).overlays();
+
+            ProductionSuggestionResponse baseline = optimizer.optimize(catalog);
+            List<ProductionSuggestionResponse> plans = solve(optimizer, overlays);
+
+            List<ScenarioResponse.Result> results = new ArrayList<>(plans.size());
+            for (int i = 0; i < plans.size(); i++) {
+                ProductionSuggestionResponse plan = plans.get(i);
+                results.add(new ScenarioResponse.Result(nameOf(request.scenarios().get(i), i), plan,
+                        plan.totalValue().subtract(baseline.totalValue())));
+            }
+            return new ScenarioResponse(snapshot.version(), baseline, results);
+        });
+    }
+
+    private List<ProductionSuggestionResponse> solve(ProductionOptimizer optimizer, List<CompiledCatalog> overlays) {
+        List<Callable<ProductionSuggestionResponse>> tasks = overlays.stream()
+                .<Callable<ProductionSuggestionResponse>>map(overlay -> () -> optimizer.optimizeScenario(overlay))
+                .toList();
+
+        List<ProductionSuggestionResponse> plans = new ArrayList<>(tasks.size());
+        try {
+            for (Future<ProductionSuggestionResponse> future : pool.invokeAll(tasks)) {
+                plans.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating scenarios", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException("Scenario evaluation failed", e.getCause());
+        }
+        return plans;
+    }
+
+    private static String nameOf(ScenarioRequest.Scenario scenario, int index) {
+        return scenario.name() == null || scenario.name().isBlank() ? "scenario " + (index + 1) : scenario.name();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Turns the request's ids, codes, deltas and percentages into catalog indexes and scaled values. */
+    private final class Resolver {
+
+        private final CompiledCatalog catalog;
+        private final List<ScenarioRequest.Scenario> scenarios;
+        private final Map<String, Long> materialIdsByCode;
+        private final Set<Long> knownMaterialIds;
+        private Map<Long, Integer> productsById;
+        private Map<String, Integer> productsByCode;
+
+        Resolver(CompiledCatalog catalog, List<ScenarioRequest.Scenario> scenarios) {
+            this.catalog = catalog;
+            this.scenarios = scenarios;
+            this.materialIdsByCode = rawMaterialJdbcRepository.findIdsByCodes(stockOverrides()
+                    .map(StockOverride::code).filter(Objects::nonNull).collect(Collectors.toSet()));
+            this.knownMaterialIds = rawMaterialJdbcRepository.findExistingIds(stockOverrides()
+                    .map(StockOverride::rawMaterialId).filter(Objects::nonNull).collect(Collectors.toSet()));
+        }
+
+        private java.util.stream.Stream<StockOverride> stockOverrides() {
+            return scenarios.stream().map(ScenarioRequest.Scenario::stock).filter(Objects::nonNull).flatMap(Collection::stream);
+        }
+
+        List<CompiledCatalog> overlays() {
+            List<CompiledCatalog> overlays = new ArrayList<>(scenarios.size());
+            for (int i = 0; i < scenarios.size(); i++) {
+                ScenarioRequest.Scenario scenario = scenarios.get(i);
+                String label = "Scenario '" + nameOf(scenario, i) + "': ";
+
+                Map<Integer, Long> stock = new LinkedHashMap<>();
+                if (scenario.stock() != null) {
+                    scenario.stock().forEach(override -> applyStock(override, stock, label));
+                }
+                Map<Integer, BigDecimal> prices = new LinkedHashMap<>();
+                if (scenario.prices() != null) {
+                    scenario.prices().forEach(override -> applyPrice(override, prices, label));
+                }
+                overlays.add(catalog.withOverlay(stock, prices));
+            }
+            return overlays;
+        }
+
+        private void applyStock(StockOverride override, Map<Integer, Long> stock, String label) {
+            if ((override.quantity() == null) == (override.delta() == null)) {
+                throw new InvalidScenarioException(label + "each stock override needs either quantity or delta");
+            }
+
+            Long id = override.rawMaterialId();
+            if (id == null && override.code() != null) {
+                id = materialIdsByCode.get(override.code());
+                if (id == null) throw new InvalidScenarioException(label + "raw material code '" + override.code() + "' not found");
+            } else if (id == null) {
+                throw new InvalidScenarioException(label + "each stock override needs rawMaterialId or code");
+            } else if (!knownMaterialIds.contains(id)) {
+                throw new InvalidScenarioException(label + "raw material " + id + " not found");
+            }
+
+            int material = catalog.materialIndex(id);
+            if (material < 0) return; // no product uses it, so it cannot change the plan
+
+            BigDecimal given = override.quantity() != null ? override.quantity() : override.delta();
+            if (given.stripTrailingZeros().scale() > catalog.scale()) {
+                throw new InvalidScenarioException(label + "quantities for raw material " + id
+                        + " must have at most " + catalog.scale() + " decimal places");
+            }
+
+            long current = stock.getOrDefault(material, catalog.stock(material));
+            long quantity;
+            try {
+                quantity = override.quantity() != null
+                        ? catalog.toScaled(override.quantity())
+                        : Math.addExact(current, catalog.toScaled(override.delta()));
+            } catch (ArithmeticException e) {
+                throw new InvalidScenarioException(label + "stock of raw material " + id + " is out of range (at most "
+                        + catalog.toQuantity(Long.MAX_VALUE).toPlainString() + ")");
+            }
+            if (quantity < 0) {
+                throw new InvalidScenarioException(label + "stock of raw material " + id + " would be negative ("
+                        + catalog.toQuantity(quantity).toPlainString() + ")");
+            }
+            stock.put(material, quantity);
+        }
+
+        private void applyPrice(PriceOverride override, Map<Integer, BigDecimal> prices, String label) {
+            if ((override.saleValue() == null) == (override.changePercent() == null)) {
+                throw new InvalidScenarioException(label + "each price override needs either saleValue or changePercent");
+            }
+
+            int product = productIndex(override, label);
+            BigDecimal current = prices.getOrDefault(product, catalog.saleValue(product));
+            BigDecimal saleValue = override.saleValue() != null
+                    ? override.saleValue()
+                    : current.multiply(BigDecimal.ONE.add(override.changePercent().movePointLeft(2)))
+                            .setScale(current.scale(), RoundingMode.HALF_UP);
+            if (saleValue.signum() <= 0) {
+                throw new InvalidScenarioException(label + "sale value of product " + catalog.productCode(product)
+                        + " must be positive, got " + saleValue.toPlainString());
+            }
+            prices.put(product, saleValue);
+        }
+
+        private int productIndex(PriceOverride override, String label) {
+            if (productsById == null) {
+                productsById = new HashMap<>();
+                productsByCode = new HashMap<>();
+                for (int j = 0; j < catalog.productCount(); j++) {
+                    productsById.put(catalog.productId(j), j);
+                    productsByCode.put(catalog.productCode(j), j);
+                }
+            }
+
+            Integer product;
+            if (override.productId() != null) {
+                product = productsById.get(override.productId());
+                if (product == null) throw new InvalidScenarioException(label + "product " + override.productId() + " not found");
+            } else if (override.code() != null) {
+                product = productsByCode.get(override.code());
+                if (product == null) throw new InvalidScenarioException(label + "product code '" + override.code() + "' not found");
+            } else {
+                throw new InvalidScenarioException(label + "each price override needs productId or code");
+            }
+            return product;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.dto.ScheduleRequest;
+import com.projedata.factory.api.dto.ScheduleRequest.Receipt;
+import com.projedata.factory.api.dto.ScheduleResponse;
+import com.projedata.factory.api.exception.InvalidScheduleException;
+import com.projedata.factory.api.exception.QuantityOverflowException;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Plans production over a horizon of periods with known raw material receipts. The optimizer
+ * solves the whole horizon once, against the current stock plus every receipt, as an overlay
+ * of the snapshot catalog; {@link PeriodScheduler} then places each unit in the earliest
+ * period whose stock covers it. The total is therefore the strategy's answer for the horizon
+ * and the periods only decide when each unit is made.
+ */
+@Service
+public class ProductionScheduleService {
+
+    private final BomSnapshotCache snapshotCache;
+    private final Map<OptimizationStrategy, ProductionOptimizer> optimizers = new HashMap<>();
+    private final RawMaterialJdbcRepository rawMaterialJdbcRepository;
+    private final OptimizerProperties.Schedule properties;
+    private final MeterRegistry meterRegistry;
+
+    public ProductionScheduleService(BomSnapshotCache snapshotCache, List<ProductionOptimizer> optimizers,
+                                     RawMaterialJdbcRepository rawMaterialJdbcRepository,
+                                     OptimizerProperties properties, MeterRegistry meterRegistry) {
+        this.snapshotCache = snapshotCache;
+        optimizers.forEach(optimizer -> this.optimizers.put(optimizer.strategy(), optimizer));
+        this.rawMaterialJdbcRepository = rawMaterialJdbcRepository;
+        this.properties = properties.schedule();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ScheduleResponse schedule(OptimizationStrategy strategy, ScheduleRequest request) {
+        ProductionOptimizer optimizer = optimizers.get(strategy);
+        if (optimizer == null) {
+            throw new IllegalArgumentException("Unsupported optimization strategy: " + strategy);
+        }
+        if (request.periods().size() > properties.maxPeriods()) {
+            throw new InvalidScheduleException("At most " + properties.maxPeriods() + " periods per request, got "
+                    + request.periods().size());
+        }
+
+        return meterRegistry.timer("factory.optimize.schedule", "strategy", strategy.name().toLowerCase()).record(() -> {
+            BomSnapshot snapshot = snapshotCache.get();
+            CompiledCatalog catalog = snapshot.catalog();
+            if (catalog.isWide()) {
+                throw new QuantityOverflowException("Schedules are not available while catalog quantities exceed "
+                        + Long.MAX_VALUE + " at " + catalog.scale() + " decimal places");
+            }
+
+            List<Map<Integer, Long>> receipts = receipts(catalog, request.periods());
+            ProductionSuggestionResponse total = optimizer.optimizeScenario(
+                    catalog.withOverlay(horizonStock(catalog, receipts), Map.of()));
+            List<ProductionSuggestionResponse> plans = PeriodScheduler.schedule(catalog, receipts,
+                    PeriodScheduler.unitsOf(catalog, total));
+
+            List<ScheduleResponse.Period> periods = new ArrayList<>(plans.size());
+            for (int t = 0; t < plans.size(); t++) {
+                periods.add(new ScheduleResponse.Period(nameOf(request.periods().get(t), t), plans.get(t)));
+            }
+            return new ScheduleResponse(snapshot.version(), total, periods);
+        });
+    }
+
+    /** Scaled receipts keyed by material index, one map per period; materials no product uses are dropped. */
+    private List<Map<Integer, Long>> receipts(CompiledCatalog catalog, List<ScheduleRequest.Period> periods) {
+        List<Receipt> all = periods.stream().map(ScheduleRequest.Period::receipts).filter(Objects::nonNull)
+                .flatMap(Collection::stream).toList();
+        Map<String, Long> idsByCode = rawMaterialJdbcRepository.findIdsByCodes(all.stream()
+                .map(Receipt::code).filter(Objects::nonNull).collect(Collectors.toSet()));
+        Set<Long> knownIds = rawMaterialJdbcRepository.findExistingIds(all.stream()
+                .map(Receipt::rawMaterialId).filter(Objects::nonNull).collect(Collectors.toSet()));
+
+        List<Map<Integer, Long>> receipts = new ArrayList<>(periods.size());
+        for (int t = 0; t < periods.size(); t++) {
+            ScheduleRequest.Period period = periods.get(t);
+            String label = "Period '" + nameOf(period, t) + "': ";
+
+            Map<Integer, Long> received = new HashMap<>();
+            if (period.receipts() != null) {
+                for (Receipt receipt : period.receipts()) {
+                    long id = materialId(receipt, idsByCode, knownIds, label);
+                    int material = catalog.materialIndex(id);
+                    if (material < 0) continue;
+
+                    long quantity = toScaled(catalog, receipt.quantity(), id, label);
+                    received.merge(material, quantity, (a, b) -> add(a, b, id, label));
+                }
+            }
+            receipts.add(received);
+        }
+        return receipts;
+    }
+
+    private static long materialId(Receipt receipt, Map<String, Long> idsByCode, Set<Long> knownIds, String label) {
+        Long id = receipt.rawMaterialId();
+        if (id == null && receipt.code() != null) {
+            id = idsByCode.get(receipt.code());
+            if (id == null) throw new InvalidScheduleException(label + "raw material code '" + receipt.code() + "' not found");
+        } else if (id == null) {
+            throw new InvalidScheduleException(label + "each receipt needs rawMaterialId or code");
+        } else if (!knownIds.contains(id)) {
+            throw new InvalidScheduleException(label + "raw material " + id + " not found");
+        }
+        return id;
+    }
+
+    private static long toScaled(CompiledCatalog catalog, BigDecimal quantity, long id, String label) {
+        try {
+            return catalog.toScaled(quantity);
+        } catch (ArithmeticException e) {
+            if (quantity.stripTrailingZeros().scale() > catalog.scale()) {
+                throw new InvalidScheduleException(label + "receipts of raw material " + id
+                        + " must have at most " + catalog.scale() + " decimal places");
+            }
+            throw new QuantityOverflowException(label + "receipt of raw material " + id
+                    + " exceeds the largest supported quantity");
+        }
+    }
+
+    private static long add(long a, long b, long id, String label) {
+        try {
+            return Math.addExact(a, b);
+        } catch (ArithmeticException e) {
+            throw new QuantityOverflowException(label + "receipts of raw material " + id
+                    + " exceed the largest supported quantity");
+        }
+    }
+
+    /** Current stock plus every receipt of the horizon, for the materials that receive anything. */
+    private static Map<Integer, Long> horizonStock(CompiledCatalog catalog, List<Map<Integer, Long>> receipts) {
+        Map<Integer, Long> stock = new HashMap<>();
+        for (Map<Integer, Long> received : receipts) {
+            received.forEach((material, quantity) -> stock.merge(material, quantity, (a, b) ->
+                    add(a, b, catalog.materialId(material), "Horizon: ")));
+        }
+        stock.replaceAll((material, quantity) ->
+                add(catalog.stock(material), quantity, catalog.materialId(material), "Horizon: "));
+        return stock;
+    }
+
+    private static String nameOf(ScheduleRequest.Period period, int index) {
+        return period.name() == null || period.name().isBlank() ? "period " + (index + 1) : period.name();
+    }
+}
@@ -1,22 +1,42 @@
 package com.projedata.factory.api.service;
 
+import com.projedata.factory.api.config.PaginationProperties;
+import com.projedata.factory.api.dto.PageResponse;
 import com.projedata.factory.api.dto.RawMaterialRequest;
+import com.projedata.factory.api.dto.RawMaterialResponse;
 import com.projedata.factory.api.entity.RawMaterial;
 import com.projedata.factory.api.exception.ResourceNotFoundException;
+import com.projedata.factory.api.exception.VersionConflictException;
 import com.projedata.factory.api.repository.RawMaterialRepository;
+import com.projedata.factory.api.repository.StockLevel;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class RawMaterialService {
 
     private final RawMaterialRepository rawMaterialRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PaginationProperties pagination;
+    private final TransactionOperations transactionOperations;
+    private final StockRetry stockRetry;
 
-    public List<RawMaterial> findAll() {
-        return rawMaterialRepository.findAll();
+    public PageResponse<RawMaterialResponse> findPage(Long cursor, Integer size) {
+        int pageSize = pagination.resolve(size);
+        List<RawMaterialResponse> rows = rawMaterialRepository.findPageAfter(cursor == null ? 0 : cursor,
+                Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<RawMaterialResponse> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return new PageResponse<>(items, hasMore ? items.getLast().id() : null);
     }
 
     public RawMaterial findById(Long id) {
@@ -35,19 +55,40 @@ public class RawMaterialService {
         return  rawMaterialRepository.save(rawMaterial);
     }
 
+    /**
+     * With a {@code version} the update is a compare-and-set and a conflict goes back to the
+     * client as 409. Without one it is an overwrite, so a lost race is simply retried.
+     */
     public RawMaterial update(Long id, RawMaterialRequest request) {
+        if (request.version() != null) {
+            return transactionOperations.execute(status -> apply(id, request));
+        }
+        return stockRetry.execute("raw-material-update",
+                () -> transactionOperations.execute(status -> apply(id, request)));
+    }
+
+    private RawMaterial apply(Long id, RawMaterialRequest request) {
         RawMaterial rawMaterial = findById(id);
+        if (request.version() != null && !request.version().equals(rawMaterial.getVersion())) {
+            throw new VersionConflictException("RawMaterial", id, rawMaterial.getVersion());
+        }
 
         rawMaterial.setCode(request.code());
         rawMaterial.setName(request.name());
         rawMaterial.setStockQuantity(request.stockQuantity());
         rawMaterial.setUnit(request.unit());
 
-        return rawMaterialRepository.save(rawMaterial);
-        }
+        // flushed so the event carries the row version this write produced
+        RawMaterial saved = rawMaterialRepository.saveAndFlush(rawMaterial);
+        eventPublisher.publishEvent(new StockChangedEvent(
+                Map.of(id, new StockLevel(saved.getStockQuantity(), saved.getVersion()))));
+        return saved;
+    }
 
+    @Transactional
     public void delete(Long id) {
         findById(id);
         rawMaterialRepository.deleteById(id);
+        eventPublisher.publishEvent(new CatalogChangedEvent("raw material " + id + " deleted"));
     }
 }
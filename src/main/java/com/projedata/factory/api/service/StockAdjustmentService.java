@@ -0,0 +1,140 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.StockProperties;
+import com.projedata.factory.api.dto.StockAdjustmentRequest;
+import com.projedata.factory.api.dto.StockAdjustmentRequest.Adjustment;
+import com.projedata.factory.api.dto.StockAdjustmentResponse;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import com.projedata.factory.api.repository.StockDelta;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockAdjustmentService {
+
+    private final RawMaterialJdbcRepository jdbcRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactionOperations;
+    private final StockProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final StockRetry stockRetry;
+
+    public StockAdjustmentResponse adjust(StockAdjustmentRequest request) {
+        List<Adjustment> adjustments = request.adjustments();
+        SortedMap<Integer, String> errors = new TreeMap<>();
+        List<StockDelta> deltas = new ArrayList<>(adjustments.size());
+        List<Integer> entries = new ArrayList<>(adjustments.size());
+
+        resolve(adjustments, deltas, entries, errors);
+
+        StockAdjustmentResponse response = request.isAtomic() && !errors.isEmpty()
+                ? rolledBack(adjustments.size(), errors)
+                : apply(request, deltas, entries, errors);
+
+        meterRegistry.counter("factory.stock.adjustments", "result", "applied").increment(response.applied());
+        meterRegistry.counter("factory.stock.adjustments", "result", "rejected").increment(response.rejected());
+
+        log.info("Stock adjustment finished — applied: {}, rejected: {}, rolled back: {}",
+                response.applied(), response.rejected(), response.rolledBack());
+        return response;
+    }
+
+    /*
+     * The deltas are not idempotent, but a failed attempt (deadlock, lock timeout) is rolled
+     * back as a whole, so re-running the transaction from scratch is safe.
+     */
+    private StockAdjustmentResponse apply(StockAdjustmentRequest request, List<StockDelta> deltas,
+                                          List<Integer> entries, SortedMap<Integer, String> resolveErrors) {
+        int total = request.adjustments().size();
+
+        return stockRetry.execute("stock-adjustment", () -> Objects.requireNonNull(transactionOperations.execute(status -> {
+            SortedMap<Integer, String> errors = new TreeMap<>(resolveErrors);
+            int[] counts = jdbcRepository.addStock(deltas, !request.isNegativeAllowed(), properties.batchSize());
+            Set<Long> adjusted = new LinkedHashSet<>();
+
+            for (int i = 0; i < counts.length; i++) {
+                long id = deltas.get(i).rawMaterialId();
+                if (counts[i] > 0) {
+                    adjusted.add(id);
+                } else {
+                    errors.put(entries.get(i), request.isNegativeAllowed()
+                            ? "raw material " + id + " not found"
+                            : "insufficient stock for raw material " + id);
+                }
+            }
+
+            if (request.isAtomic() && !errors.isEmpty()) {
+                status.setRollbackOnly();
+                return rolledBack(total, errors);
+            }
+
+            if (!adjusted.isEmpty()) {
+                eventPublisher.publishEvent(new StockChangedEvent(jdbcRepository.findStockByIds(adjusted)));
+            }
+            return new StockAdjustmentResponse(total - errors.size(), errors.size(), false, messages(errors));
+        })));
+    }
+
+    private void resolve(List<Adjustment> adjustments, List<StockDelta> deltas, List<Integer> entries,
+                         SortedMap<Integer, String> errors) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> codes = new LinkedHashSet<>();
+        for (Adjustment adjustment : adjustments) {
+            if (adjustment.rawMaterialId() != null) {
+                ids.add(adjustment.rawMaterialId());
+            } else if (adjustment.code() != null && !adjustment.code().isBlank()) {
+                codes.add(adjustment.code().trim());
+            }
+        }
+
+        Set<Long> existingIds = jdbcRepository.findExistingIds(ids);
+        Map<String, Long> idsByCode = jdbcRepository.findIdsByCodes(codes);
+
+        for (int i = 0; i < adjustments.size(); i++) {
+            Adjustment adjustment = adjustments.get(i);
+            int entry = i + 1;
+            Long id;
+
+            if (adjustment.rawMaterialId() != null) {
+                id = existingIds.contains(adjustment.rawMaterialId()) ? adjustment.rawMaterialId() : null;
+                if (id == null) errors.put(entry, "raw material " + adjustment.rawMaterialId() + " not found");
+            } else if (adjustment.code() != null && !adjustment.code().isBlank()) {
+                id = idsByCode.get(adjustment.code().trim());
+                if (id == null) errors.put(entry, "raw material code " + adjustment.code().trim() + " not found");
+            } else {
+                id = null;
+                errors.put(entry, "rawMaterialId or code is required");
+            }
+
+            if (id != null) {
+                deltas.add(new StockDelta(id, adjustment.delta()));
+                entries.add(entry);
+            }
+        }
+    }
+
+    private StockAdjustmentResponse rolledBack(int total, SortedMap<Integer, String> errors) {
+        return new StockAdjustmentResponse(0, total, true, messages(errors));
+    }
+
+    private List<String> messages(SortedMap<Integer, String> errors) {
+        return errors.entrySet().stream()
+                .map(e -> "Entry " + e.getKey() + ": " + e.getValue())
+                .toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.repository.StockLevel;
+import java.util.Map;
+
+/**
+ * Absolute stock after a write, with the row version of each material so that listeners
+ * running out of commit order can drop a level older than the one they already hold.
+ */
+public record StockChangedEvent(Map<Long, StockLevel> stockByRawMaterialId) {
+}
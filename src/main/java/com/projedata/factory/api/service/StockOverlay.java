@@ -0,0 +1,44 @@
+package com.projedata.factory.api.service;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write working stock for one optimizer run: reads fall through to the catalog until
+ * a material is first consumed. Starting a new run only bumps the epoch, so one instance per
+ * worker thread serves any number of runs without copying or clearing the stock.
+ */
+final class StockOverlay {
+
+    private long[] values = new long[0];
+    private int[] epochs = new int[0];
+    private int epoch;
+    private CompiledCatalog catalog;
+
+    StockOverlay reset(CompiledCatalog catalog) {
+        int materials = catalog.materialCount();
+        if (values.length < materials) {
+            values = new long[materials];
+            epochs = new int[materials];
+            epoch = 0;
+        }
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(epochs, 0);
+            epoch = 1;
+        }
+        this.catalog = catalog;
+        return this;
+    }
+
+    void release() {
+        catalog = null;
+    }
+
+    long get(int material) {
+        return epochs[material] == epoch ? values[material] : catalog.stock(material);
+    }
+
+    void subtract(int material, long quantity) {
+        values[material] = get(material) - quantity;
+        epochs[material] = epoch;
+    }
+}
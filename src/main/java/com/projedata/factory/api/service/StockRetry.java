@@ -0,0 +1,61 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.StockProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a whole stock transaction when it loses an optimistic-lock race or a deadlock.
+ * Only for operations that are safe to repeat: overwrites with absolute values, or
+ * transactions whose failed attempt was rolled back entirely. Backoff doubles per attempt
+ * with jitter, so colliding writers spread out instead of colliding again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockRetry {
+
+    private final StockProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public <T> T execute(String operation, Supplier<T> transaction) {
+        StockProperties.Retry retry = properties.retry();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (ConcurrencyFailureException e) {
+                boolean exhausted = attempt >= retry.maxAttempts();
+                meterRegistry.counter("factory.stock.retries",
+                        "operation", operation,
+                        "outcome", exhausted ? "exhausted" : "retried").increment();
+
+                if (exhausted) {
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                log.debug("{} conflicted on attempt {}: {}", operation, attempt, e.getMessage());
+                pause(retry.backoff().multipliedBy(1L << (attempt - 1)), e);
+            }
+        }
+    }
+
+    private void pause(Duration backoff, ConcurrencyFailureException cause) {
+        long millis = backoff.toMillis();
+        if (millis <= 0) return;
+
+        try {
+            Thread.sleep(millis / 2 + ThreadLocalRandom.current().nextLong(millis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
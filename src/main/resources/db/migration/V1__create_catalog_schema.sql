@@ -0,0 +1,35 @@
+-- Catalog schema as mapped by the entities: pooled sequences (INCREMENT BY must match
+-- SequenceIds.ALLOCATION_SIZE) and NUMERIC(38, 2) quantities.
+
+CREATE SEQUENCE raw_materials_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_compositions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE raw_materials (
+    id             BIGINT         NOT NULL,
+    code           VARCHAR(255)   NOT NULL,
+    name           VARCHAR(255)   NOT NULL,
+    stock_quantity NUMERIC(38, 2) NOT NULL,
+    unit           VARCHAR(255)   NOT NULL,
+    CONSTRAINT pk_raw_materials PRIMARY KEY (id),
+    CONSTRAINT uk_raw_materials_code UNIQUE (code)
+);
+
+CREATE TABLE products (
+    id         BIGINT         NOT NULL,
+    code       VARCHAR(255)   NOT NULL,
+    name       VARCHAR(255)   NOT NULL,
+    sale_value NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT uk_products_code UNIQUE (code)
+);
+
+CREATE TABLE product_compositions (
+    id                BIGINT         NOT NULL,
+    product_id        BIGINT         NOT NULL,
+    raw_material_id   BIGINT         NOT NULL,
+    required_quantity NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_product_compositions PRIMARY KEY (id),
+    CONSTRAINT fk_product_compositions_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_product_compositions_raw_material FOREIGN KEY (raw_material_id) REFERENCES raw_materials (id)
+);
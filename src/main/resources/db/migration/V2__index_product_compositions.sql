@@ -0,0 +1,13 @@
+-- Neither database indexes foreign key columns on its own.
+--
+-- Every composition read filters by product_id and orders by (product_id, id): the fetch
+-- join in findAllWithCompositions, findRowsByProductIds for expanded pages, the catalog
+-- export and the DELETE ... WHERE product_id IN of imports. Carrying raw_material_id and
+-- required_quantity makes the index covering, so page expansion never visits the table.
+CREATE INDEX idx_product_compositions_product
+    ON product_compositions (product_id, id, raw_material_id, required_quantity);
+
+-- Deleting a raw material checks fk_product_compositions_raw_material, which would
+-- otherwise scan the whole table.
+CREATE INDEX idx_product_compositions_raw_material
+    ON product_compositions (raw_material_id);
@@ -0,0 +1,4 @@
+-- @Version columns for optimistic locking. JDBC writers increment them as well, so a
+-- JPA update based on a stale read fails instead of overwriting a batch write.
+ALTER TABLE raw_materials ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,22 @@
+-- Moves an existing PostgreSQL schema created with IDENTITY ids to the pooled sequences
+-- expected by the entities (see SequenceIds). Run once, with the application stopped,
+-- before deploying the version that maps ids with GenerationType.SEQUENCE.
+--
+-- Each nextval reserves the 50 ids ending at the returned value, so every sequence is
+-- set to hand out max(id) + 50 next: the first block starts right after the current ids.
+
+BEGIN;
+
+ALTER TABLE raw_materials ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product_compositions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS raw_materials_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS product_compositions_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('raw_materials_seq', COALESCE((SELECT MAX(id) FROM raw_materials), 0) + 50, false);
+SELECT setval('products_seq', COALESCE((SELECT MAX(id) FROM products), 0) + 50, false);
+SELECT setval('product_compositions_seq', COALESCE((SELECT MAX(id) FROM product_compositions), 0) + 50, false);
+
+COMMIT;
@@ -0,0 +1,75 @@
+package com.projedata.factory.api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    private DataSource target;
+    private Connection connection;
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(50));
+        dataSource.bindTo(meterRegistry);
+    }
+
+    @Test
+    void shouldTimeOutWhileAllPermitsAreHeldAndReuseThePermitAfterClose() throws SQLException {
+        Connection held = dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("1 permits");
+        assertThat(meterRegistry.get("factory.db.permit.wait").tag("result", "timeout").timer().count()).isEqualTo(1);
+
+        held.close();
+        dataSource.getConnection().close();
+
+        verify(connection, times(2)).close();
+        assertThat(meterRegistry.get("factory.db.permit.in.use").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldReleaseThePermitOnlyOnceWhenClosedTwice() throws SQLException {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        Connection second = dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        second.close();
+    }
+
+    @Test
+    void shouldReleaseThePermitWhenThePoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted")).thenReturn(connection);
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+
+        dataSource.getConnection().close();
+        assertThat(meterRegistry.get("factory.db.permit.wait").tag("result", "acquired").timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,48 @@
+package com.projedata.factory.api.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    void shouldTimeVirtualThreadsThatBlockInsideSynchronized() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(
+                new VirtualThreadProperties.Pinning(true, Duration.ofMillis(5), 8), meterRegistry);
+
+        pinningMonitor.start();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    sleep(50);
+                }
+            }).join();
+
+            // JFR hands events to the stream about once per second
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (meterRegistry.timer("factory.virtual.threads.pinned").count() == 0 && System.nanoTime() < deadline) {
+                sleep(100);
+            }
+        } finally {
+            pinningMonitor.stop();
+        }
+
+        assertThat(meterRegistry.timer("factory.virtual.threads.pinned").count()).isPositive();
+        assertThat(pinningMonitor.isRunning()).isFalse();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.projedata.factory.api.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Applies the Flyway migrations to a throwaway schema. The embedded run uses H2 in
+ * PostgreSQL mode; the PostgreSQL run is opt-in and needs no containers, e.g.
+ * {@code -Dfactory.test.postgres-url=jdbc:postgresql://localhost/factory -Dfactory.test.postgres-user=...}.
+ * The entity mapping itself is validated against the migrated H2 schema by ApplicationTests.
+ */
+class SchemaMigrationTest {
+
+    private static final String SCHEMA = "migration_test";
+
+    @Test
+    void shouldMigrateEmbeddedH2() throws SQLException {
+        migrateAndVerify("jdbc:h2:mem:migration;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "factory.test.postgres-url", matches = ".+")
+    void shouldMigrateLocalPostgres() throws SQLException {
+        migrateAndVerify(System.getProperty("factory.test.postgres-url"),
+                System.getProperty("factory.test.postgres-user", "postgres"),
+                System.getProperty("factory.test.postgres-password", ""));
+    }
+
+    private void migrateAndVerify(String url, String user, String password) throws SQLException {
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, user, password)
+                .schemas(SCHEMA)
+                .cleanDisabled(false)
+                .load();
+
+        try {
+            assertThat(flyway.migrate().success).isTrue();
+
+            try (Connection connection = DriverManager.getConnection(url, user, password)) {
+                assertThat(indexColumns(connection, "idx_product_compositions_product"))
+                        .containsExactly("product_id", "id", "raw_material_id", "required_quantity");
+                assertThat(indexColumns(connection, "idx_product_compositions_raw_material"))
+                        .containsExactly("raw_material_id");
+            }
+        } finally {
+            flyway.clean();
+        }
+    }
+
+    private List<String> indexColumns(Connection connection, String index) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (ResultSet rs = connection.getMetaData()
+                .getIndexInfo(null, SCHEMA, "product_compositions", false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+        }
+        return columns;
+    }
+}
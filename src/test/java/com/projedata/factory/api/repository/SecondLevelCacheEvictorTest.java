@@ -0,0 +1,118 @@
+package com.projedata.factory.api.repository;
+
+import com.projedata.factory.api.dto.ProductCompositionRequest;
+import com.projedata.factory.api.dto.ProductRequest;
+import com.projedata.factory.api.dto.RawMaterialRequest;
+import com.projedata.factory.api.dto.StockAdjustmentRequest;
+import com.projedata.factory.api.dto.StockAdjustmentRequest.Adjustment;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.service.ProductService;
+import com.projedata.factory.api.service.RawMaterialService;
+import com.projedata.factory.api.service.StockAdjustmentService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheEvictorTest {
+
+    @Autowired
+    private RawMaterialService rawMaterialService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private StockAdjustmentService stockAdjustmentService;
+
+    @Autowired
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SecondLevelCacheEvictor evictor;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldEvictOnlyTheWrittenRawMaterialsAfterAJdbcAdjustment() {
+        RawMaterial adjusted = createMaterial();
+        RawMaterial untouched = createMaterial();
+        rawMaterialService.findById(adjusted.getId());
+        rawMaterialService.findById(untouched.getId());
+        assertThat(rawMaterialRepository.findByCode(adjusted.getCode())).isPresent();
+
+        stockAdjustmentService.adjust(new StockAdjustmentRequest(
+                List.of(new Adjustment(adjusted.getId(), null, BigDecimal.TEN)), true, false));
+
+        assertThat(cache().containsEntity(RawMaterial.class, adjusted.getId())).isFalse();
+        assertThat(cache().containsEntity(RawMaterial.class, untouched.getId())).isTrue();
+        assertThat(rawMaterialRepository.findByCode(adjusted.getCode()).orElseThrow().getStockQuantity())
+                .isEqualByComparingTo("15");
+    }
+
+    @Test
+    void shouldServeTheAdjustedStockThroughTheCachedCatalogQuery() {
+        RawMaterial material = createMaterial();
+        String code = "CACHE-" + UUID.randomUUID();
+        productService.create(new ProductRequest(code, "Cached product", BigDecimal.ONE,
+                List.of(new ProductCompositionRequest(material.getId(), BigDecimal.ONE))));
+        assertThat(stockInCatalog(code)).isEqualByComparingTo("5");
+
+        stockAdjustmentService.adjust(new StockAdjustmentRequest(
+                List.of(new Adjustment(material.getId(), null, BigDecimal.TEN)), true, false));
+
+        assertThat(stockInCatalog(code)).isEqualByComparingTo("15");
+    }
+
+    @Test
+    void shouldRegisterOneSynchronizationPerTransaction() {
+        int registered = transactionTemplate.execute(status -> {
+            int before = TransactionSynchronizationManager.getSynchronizations().size();
+            for (long id = 1; id <= 10; id++) {
+                evictor.evictEntities(RawMaterial.class, List.of(id));
+                evictor.evictQueries(RawMaterialRepository.QUERY_REGION);
+            }
+            return TransactionSynchronizationManager.getSynchronizations().size() - before;
+        });
+
+        assertThat(registered).isEqualTo(1);
+    }
+
+    private RawMaterial createMaterial() {
+        return rawMaterialService.create(new RawMaterialRequest(
+                "CACHE-" + UUID.randomUUID(), "Cached material", new BigDecimal("5"), "un"));
+    }
+
+    private BigDecimal stockInCatalog(String productCode) {
+        return transactionTemplate.execute(status -> productRepository.findAllWithCompositions().stream()
+                .filter(product -> product.getCode().equals(productCode))
+                .map(Product::getCompositions)
+                .flatMap(List::stream)
+                .findFirst()
+                .orElseThrow()
+                .getRawMaterial()
+                .getStockQuantity());
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
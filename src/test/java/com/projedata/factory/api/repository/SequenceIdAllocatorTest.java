@@ -0,0 +1,33 @@
+package com.projedata.factory.api.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SequenceIdAllocatorTest {
+
+    @Test
+    void shouldHandOutContiguousBlocksThatMatchThePooledOptimizer() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:sequence-ids;MODE=PostgreSQL", true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE SEQUENCE test_seq START WITH 1 INCREMENT BY 50");
+
+        SequenceIdAllocator allocator = new SequenceIdAllocator(jdbcTemplate);
+
+        long[] first = allocator.allocate("test_seq", 51);
+        long[] second = allocator.allocate("test_seq", 3);
+
+        assertThat(first).containsExactly(LongStream.rangeClosed(1, 51).toArray());
+        assertThat(second).containsExactly(52, 53, 54);
+        assertThat(jdbcTemplate.queryForObject("SELECT nextval('test_seq')", Long.class))
+                .as("the rest of the last block is left unused, never handed out twice")
+                .isGreaterThan(Arrays.stream(second).max().orElseThrow() + 47);
+
+        dataSource.destroy();
+    }
+}
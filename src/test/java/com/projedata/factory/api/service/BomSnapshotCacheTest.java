@@ -0,0 +1,130 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.BomSnapshotStatsResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.StockLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BomSnapshotCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BomSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BomSnapshotCache(productRepository, meterRegistry);
+
+        RawMaterial flour = RawMaterial.builder().id(1L).stockQuantity(new BigDecimal("1000")).build();
+        Product bread = Product.builder()
+                .id(1L)
+                .code("BRD001")
+                .name("Bread")
+                .saleValue(new BigDecimal("5.00"))
+                .compositions(List.of(ProductComposition.builder()
+                        .rawMaterial(flour)
+                        .requiredQuantity(new BigDecimal("100"))
+                        .build()))
+                .build();
+
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(bread));
+    }
+
+    @Test
+    void shouldBuildOnceAndServeHitsAfterwards() {
+        BomSnapshot first = cache.get();
+        BomSnapshot second = cache.get();
+
+        assertThat(second).isSameAs(first);
+        verify(productRepository, times(1)).findAllWithCompositions();
+
+        BomSnapshotStatsResponse stats = cache.stats();
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.rebuilds()).isEqualTo(1);
+        assertThat(stats.products()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRebuildAfterCatalogChange() {
+        BomSnapshot first = cache.get();
+
+        cache.onCatalogChanged(new CatalogChangedEvent("product updated"));
+        BomSnapshot second = cache.get();
+
+        assertThat(second.version()).isGreaterThan(first.version());
+        verify(productRepository, times(2)).findAllWithCompositions();
+    }
+
+    @Test
+    void shouldPatchStockWithoutTouchingTheDatabase() {
+        BomSnapshot first = cache.get();
+
+        cache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("250"), 1))));
+        BomSnapshot patched = cache.get();
+
+        assertThat(patched.version()).isGreaterThan(first.version());
+        assertThat(patched.catalog().toQuantity(patched.catalog().stock(0))).isEqualByComparingTo("250");
+        assertThat(first.catalog().toQuantity(first.catalog().stock(0))).isEqualByComparingTo("1000");
+        assertThat(cache.stats().patches()).isEqualTo(1);
+        verify(productRepository, times(1)).findAllWithCompositions();
+    }
+
+    @Test
+    void shouldIgnoreStockOlderThanTheSnapshotHolds() {
+        cache.get();
+
+        cache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("300"), 3))));
+        BomSnapshot patched = cache.get();
+        // an earlier commit whose listener ran late
+        cache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("250"), 2))));
+        cache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("300"), 3))));
+
+        assertThat(cache.get()).isSameAs(patched);
+        assertThat(patched.catalog().toQuantity(patched.catalog().stock(0))).isEqualByComparingTo("300");
+        assertThat(cache.stats().patches()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRebuildWhenPatchIsFinerThanCatalogScale() {
+        cache.get();
+
+        cache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("250.5"), 1))));
+        cache.get();
+
+        assertThat(cache.stats().patches()).isZero();
+        verify(productRepository, times(2)).findAllWithCompositions();
+    }
+
+    @Test
+    void shouldExportCatalogSizesFromLastSnapshot() {
+        new BomSnapshotMetrics(cache).bindTo(meterRegistry);
+
+        cache.get();
+        cache.invalidate();
+
+        assertThat(meterRegistry.get("factory.catalog.products").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.catalog.compositions").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.catalog.raw.materials").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.bom.snapshot.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(1);
+    }
+}
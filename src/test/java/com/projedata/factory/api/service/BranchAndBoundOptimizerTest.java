@@ -0,0 +1,185 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BranchAndBoundOptimizerTest {
+
+    @Test
+    void shouldFindOptimalMixAcrossSharedMaterials() {
+        RawMaterial wood = buildMaterial(1L, new BigDecimal("12"));
+        RawMaterial glue = buildMaterial(2L, new BigDecimal("8"));
+
+        Product table = buildProduct(1L, new BigDecimal("30.00"), List.of(
+                buildComposition(wood, new BigDecimal("7")),
+                buildComposition(glue, new BigDecimal("2"))
+        ));
+        Product chair = buildProduct(2L, new BigDecimal("18.00"), List.of(
+                buildComposition(wood, new BigDecimal("4")),
+                buildComposition(glue, new BigDecimal("3"))
+        ));
+        Product stool = buildProduct(3L, new BigDecimal("9.00"), List.of(
+                buildComposition(wood, new BigDecimal("2"))
+        ));
+
+        CompiledCatalog catalog = CompiledCatalog.compile(List.of(table, chair, stool));
+
+        ProductionSuggestionResponse response = exact(100_000).optimize(catalog);
+
+        assertThat(response.totalValue()).isEqualByComparingTo(bruteForce(List.of(table, chair, stool)));
+        assertThat(response.totalValue()).isEqualByComparingTo(new BigDecimal("54.00"));
+    }
+
+    @Test
+    void shouldMatchBruteForceOnRandomCatalogs() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 25; round++) {
+            List<RawMaterial> materials = new ArrayList<>();
+            for (long id = 1; id <= 3; id++) {
+                materials.add(buildMaterial(id, BigDecimal.valueOf(10 + random.nextInt(40))));
+            }
+
+            List<Product> products = new ArrayList<>();
+            for (long id = 1; id <= 4; id++) {
+                List<ProductComposition> compositions = new ArrayList<>();
+                for (RawMaterial material : materials) {
+                    if (random.nextBoolean() || compositions.isEmpty()) {
+                        compositions.add(buildComposition(material, BigDecimal.valueOf(1 + random.nextInt(12))));
+                    }
+                }
+                products.add(buildProduct(id, BigDecimal.valueOf(1 + random.nextInt(50)), compositions));
+            }
+
+            ProductionSuggestionResponse response = exact(100_000).optimize(CompiledCatalog.compile(products));
+            assertThat(response.totalValue()).isEqualByComparingTo(bruteForce(products));
+        }
+    }
+
+    @Test
+    void shouldReturnIncumbentWhenNodeBudgetIsExhausted() {
+        RawMaterial steel = buildMaterial(1L, new BigDecimal("10"));
+
+        Product frame = buildProduct(1L, new BigDecimal("12.00"), List.of(
+                buildComposition(steel, new BigDecimal("6"))
+        ));
+        Product bracket = buildProduct(2L, new BigDecimal("10.00"), List.of(
+                buildComposition(steel, new BigDecimal("5"))
+        ));
+
+        CompiledCatalog catalog = CompiledCatalog.compile(List.of(frame, bracket));
+
+        ProductionSuggestionResponse response = exact(0).optimize(catalog);
+
+        assertThat(response.totalValue())
+                .isEqualByComparingTo(new GreedyOptimizer().optimize(catalog).totalValue());
+    }
+
+    @Test
+    void shouldReturnEmptyPlanWhenNothingIsProducible() {
+        RawMaterial flour = buildMaterial(1L, BigDecimal.ZERO);
+        Product bread = buildProduct(1L, new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+
+        ProductionSuggestionResponse response = exact(100_000).optimize(CompiledCatalog.compile(List.of(bread)));
+
+        assertThat(response.suggestions()).isEmpty();
+        assertThat(response.totalValue()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    void shouldFallBackToCheckedGreedyWhenQuantitiesOverflowLong() {
+        RawMaterial water = buildMaterial(1L, new BigDecimal("1E+19"));
+        RawMaterial dye = buildMaterial(2L, new BigDecimal("0.5"));
+        Product tank = buildProduct(1L, new BigDecimal("3.00"), List.of(buildComposition(water, new BigDecimal("1000"))));
+        Product paint = buildProduct(2L, new BigDecimal("1.00"), List.of(buildComposition(dye, new BigDecimal("0.1"))));
+        CompiledCatalog catalog = CompiledCatalog.compile(List.of(tank, paint));
+
+        ProductionSuggestionResponse response = exact(100_000).optimize(catalog);
+
+        assertThat(catalog.isWide()).isTrue();
+        assertThat(response.suggestions()).extracting(ProductionSuggestionResponse.ProductionItem::quantityToProduce)
+                .containsExactly(10_000_000_000_000_000L, 5L);
+    }
+
+    private BranchAndBoundOptimizer exact(int nodeBudget) {
+        return new BranchAndBoundOptimizer(
+                new OptimizerProperties(new OptimizerProperties.Exact(Duration.ofSeconds(5), nodeBudget),
+                        new OptimizerProperties.Scenarios(0, 100),
+                        new OptimizerProperties.Portfolio(Duration.ofMillis(200), 0, 32),
+                        new OptimizerProperties.PlanCache(Duration.ofSeconds(30)),
+                        new OptimizerProperties.Schedule(104)));
+    }
+
+    private BigDecimal bruteForce(List<Product> products) {
+        return bruteForce(products, 0, stockOf(products), BigDecimal.ZERO);
+    }
+
+    private BigDecimal bruteForce(List<Product> products, int index, Map<Long, BigDecimal> stock,
+                                  BigDecimal value) {
+        if (index == products.size()) return value;
+
+        Product product = products.get(index);
+        BigDecimal best = BigDecimal.ZERO;
+        Map<Long, BigDecimal> remaining = new HashMap<>(stock);
+
+        for (int units = 0; ; units++) {
+            best = best.max(bruteForce(products, index + 1, remaining, value.add(
+                    product.getSaleValue().multiply(BigDecimal.valueOf(units)))));
+
+            boolean fits = true;
+            for (ProductComposition c : product.getCompositions()) {
+                BigDecimal left = remaining.get(c.getRawMaterial().getId()).subtract(c.getRequiredQuantity());
+                remaining.put(c.getRawMaterial().getId(), left);
+                fits &= left.signum() >= 0;
+            }
+            if (!fits) return best;
+        }
+    }
+
+    private Map<Long, BigDecimal> stockOf(List<Product> products) {
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        products.forEach(p -> p.getCompositions().forEach(c ->
+                stock.putIfAbsent(c.getRawMaterial().getId(), c.getRawMaterial().getStockQuantity())));
+        return stock;
+    }
+
+    private RawMaterial buildMaterial(Long id, BigDecimal stock) {
+        return RawMaterial.builder()
+                .id(id)
+                .code("RM" + id)
+                .stockQuantity(stock)
+                .build();
+    }
+
+    private Product buildProduct(Long id, BigDecimal value, List<ProductComposition> compositions) {
+        return Product.builder()
+                .id(id)
+                .code("P" + id)
+                .name("Product " + id)
+                .saleValue(value)
+                .compositions(compositions)
+                .build();
+    }
+
+    private ProductComposition buildComposition(RawMaterial material, BigDecimal quantity) {
+        return ProductComposition.builder()
+                .rawMaterial(material)
+                .requiredQuantity(quantity)
+                .build();
+    }
+}
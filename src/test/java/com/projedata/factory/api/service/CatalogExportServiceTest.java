@@ -0,0 +1,120 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.dto.ProductResponse;
+import com.projedata.factory.api.dto.RawMaterialResponse;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.repository.CatalogExportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogExportServiceTest {
+
+    @Mock
+    private CatalogExportRepository repository;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private CatalogExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CatalogExportService(repository, jsonMapper, TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void shouldExportRawMaterialsAsCsvThatImportsBackUnchanged() throws Exception {
+        List<RawMaterialResponse> materials = List.of(
+                new RawMaterialResponse(1L, "FL001", "Farinha de Trigo", new BigDecimal("5000.50"), "g"),
+                new RawMaterialResponse(2L, "SG001", "Açúcar, refinado", new BigDecimal("1E+3"), "kg"),
+                new RawMaterialResponse(3L, "MK001", "Leite \"integral\"", new BigDecimal("0.125"), "l"));
+        doAnswer(invocation -> {
+            Consumer<RawMaterialResponse> consumer = invocation.getArgument(0);
+            materials.forEach(consumer);
+            return null;
+        }).when(repository).streamRawMaterials(any());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.writeRawMaterials(ExportFormat.CSV, output);
+
+        List<RawMaterial> imported = new ArrayList<>();
+        importService().readRows(new ByteArrayInputStream(output.toByteArray()), mock(ImportProgress.class),
+                imported::add);
+
+        assertThat(imported).hasSize(3);
+        for (int i = 0; i < materials.size(); i++) {
+            assertThat(imported.get(i).getCode()).isEqualTo(materials.get(i).code());
+            assertThat(imported.get(i).getName()).isEqualTo(materials.get(i).name());
+            assertThat(imported.get(i).getStockQuantity()).isEqualByComparingTo(materials.get(i).stockQuantity());
+            assertThat(imported.get(i).getUnit()).isEqualTo(materials.get(i).unit());
+        }
+    }
+
+    @Test
+    void shouldExportOneNdjsonLinePerProduct() throws Exception {
+        streamProducts();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.writeProducts(ExportFormat.NDJSON, output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+
+        JsonNode bread = jsonMapper.readTree(lines[0]);
+        assertThat(bread.get("code").asString()).isEqualTo("BRD001");
+        assertThat(bread.get("compositions")).hasSize(2);
+        assertThat(jsonMapper.readTree(lines[1]).get("compositions")).isEmpty();
+    }
+
+    @Test
+    void shouldExportOneCsvRowPerComposition() throws Exception {
+        streamProducts();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.writeProducts(ExportFormat.CSV, output);
+
+        assertThat(output.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                "productCode,productName,saleValue,rawMaterialCode,requiredQuantity",
+                "BRD001,Bread,8.50,FL001,200",
+                "BRD001,Bread,8.50,SG001,0.5",
+                "BOX001,Gift box,30.00,,");
+    }
+
+    private void streamProducts() {
+        doAnswer(invocation -> {
+            Consumer<ProductResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new ProductResponse(1L, "BRD001", "Bread", new BigDecimal("8.50"), List.of(
+                    new ProductResponse.Composition(1L, "FL001", "Flour", new BigDecimal("200"), "g"),
+                    new ProductResponse.Composition(2L, "SG001", "Sugar", new BigDecimal("0.5"), "kg"))));
+            consumer.accept(new ProductResponse(2L, "BOX001", "Gift box", new BigDecimal("30.00"), List.of()));
+            return null;
+        }).when(repository).streamProducts(any());
+    }
+
+    private CsvImportService importService() {
+        return new CsvImportService(null, null, null, new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20,
+                new ImportProperties.Parsing(1, 500),
+                new ImportProperties.Jobs(1, 1, 100, Duration.ofHours(1))), null, new SimpleMeterRegistry(), null, null);
+    }
+}
@@ -1,18 +1,40 @@
 package com.projedata.factory.api.service;
 
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.config.StockProperties;
 import com.projedata.factory.api.dto.CsvImportResponse;
 import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.ImportLimitExceededException;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
 import com.projedata.factory.api.repository.RawMaterialRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionOperations;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,9 +43,28 @@ class CsvImportServiceTest {
     @Mock
     private RawMaterialRepository repository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RawMaterialJdbcRepository jdbcRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService parsers = Executors.newFixedThreadPool(4);
+
     private CsvImportService service;
 
+    @BeforeEach
+    void setUp() {
+        service = newService(1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parsers.shutdownNow();
+    }
+
     @Test
     void shouldImportValidCsvSuccessfully() {
         String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nSG001,Sugar,3000,g\n";
@@ -124,6 +165,200 @@ class CsvImportServiceTest {
         verify(repository, never()).save(any());
     }
 
+    @Test
+    void shouldImportInChunksWithOneLookupPerChunk() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nSG001,Sugar,3000,g\nEG001,Egg,12,un\n";
+
+        when(jdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of());
+
+        CsvImportResponse response = newService(2).importRawMaterialsBatched(mockFile(csv), null);
+
+        assertThat(response.recordsImported()).isEqualTo(3);
+        assertThat(response.errors()).isEmpty();
+        verify(jdbcRepository, times(2)).findIdsByCodes(anyCollection());
+        verify(jdbcRepository).batchInsert(argThat(materials -> materials.size() == 2));
+        verify(jdbcRepository).batchInsert(argThat(materials -> materials.size() == 1
+                && materials.getFirst().getCode().equals("EG001")));
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldUpdateExistingCodesInBatchAndKeepLastDuplicate() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nFL001,Flour,7000,g\n";
+
+        when(jdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of("FL001", 1L));
+
+        CsvImportResponse response = newService(10).importRawMaterialsBatched(mockFile(csv), null);
+
+        assertThat(response.recordsImported()).isEqualTo(2);
+        verify(jdbcRepository).batchUpdate(argThat(materials -> materials.size() == 1
+                && materials.getFirst().getId().equals(1L)
+                && materials.getFirst().getStockQuantity().compareTo(new BigDecimal("7000")) == 0));
+        verify(jdbcRepository).batchInsert(List.of());
+    }
+
+    @Test
+    void shouldReportLineNumbersInBatchedMode() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nBAD001,Bad,NOT_A_NUMBER,g\nSG001,Sugar,3000,g\n";
+
+        when(jdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of());
+
+        CsvImportResponse response = newService(2).importRawMaterialsBatched(mockFile(csv), null);
+
+        assertThat(response.recordsImported()).isEqualTo(2);
+        assertThat(response.recordsSkipped()).isEqualTo(1);
+        assertThat(response.errors()).containsExactly("Line 3: Invalid stock quantity: 'NOT_A_NUMBER'");
+    }
+
+    @Test
+    void shouldDecodeLatin1WhenPrefixIsNotUtf8() {
+        byte[] content = "code,name,stockQuantity,unit\nAC001,Açúcar,3000,g\n".getBytes(StandardCharsets.ISO_8859_1);
+        MockMultipartFile file = new MockMultipartFile("file", "test.csv", "text/csv", content);
+
+        when(repository.findByCode("AC001")).thenReturn(Optional.empty());
+
+        service.importRawMaterials(file);
+
+        verify(repository).save(argThat(rm -> rm.getName().equals("Açúcar")));
+    }
+
+    @Test
+    void shouldStripUtf8ByteOrderMark() {
+        byte[] csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\n".getBytes(StandardCharsets.UTF_8);
+        byte[] content = new byte[csv.length + 3];
+        content[0] = (byte) 0xEF;
+        content[1] = (byte) 0xBB;
+        content[2] = (byte) 0xBF;
+        System.arraycopy(csv, 0, content, 3, csv.length);
+
+        when(repository.findByCode("FL001")).thenReturn(Optional.empty());
+
+        CsvImportResponse response = service.importRawMaterials(
+                new MockMultipartFile("file", "test.csv", "text/csv", content));
+
+        assertThat(response.recordsImported()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectFileAboveRowLimit() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nSG001,Sugar,3000,g\nEG001,Egg,12,un\n";
+        CsvImportService limited = newService(new ImportProperties(1000, 10_000, 4096, 2, 1 << 20, parsing(4), jobs()));
+
+        assertThatThrownBy(() -> limited.importRawMaterials(mockFile(csv)))
+                .isInstanceOf(ImportLimitExceededException.class)
+                .hasMessageContaining("2 rows");
+    }
+
+    @Test
+    void shouldRejectLineAboveLengthLimit() {
+        String csv = "code,name,stockQuantity,unit\nFL001," + "x".repeat(100) + ",5000,g\n";
+        CsvImportService limited = newService(new ImportProperties(1000, 10_000, 64, 5_000_000, 1 << 20, parsing(4), jobs()));
+
+        assertThatThrownBy(() -> limited.importRawMaterials(mockFile(csv)))
+                .isInstanceOf(ImportLimitExceededException.class);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void shouldCommitEachChunkAndReportProgress() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nSG001,Sugar,3000,g\n" +
+                "BAD001,Bad,NOT_A_NUMBER,g\nEG001,Egg,12,un\nMK001,Milk,20,l\n";
+        ImportProgress progress = mock(ImportProgress.class);
+
+        when(jdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of());
+        when(jdbcRepository.findIdsByCodes(Set.of("FL001", "SG001"))).thenReturn(Map.of("FL001", 1L));
+
+        newService(2).importRawMaterialsInChunks(stream(csv), progress);
+
+        verify(progress, times(4)).imported();
+        verify(progress).skipped(argThat(error -> error.startsWith("Line 4")));
+        verify(progress, times(2)).chunkCommitted(2);
+        verify(jdbcRepository, times(2)).batchInsert(anyList());
+        verify(jdbcRepository, times(2)).batchUpdate(anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(StockChangedEvent.class));
+
+        assertThat(meterRegistry.get("factory.import.rows").tag("result", "parsed").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("factory.import.rows").tag("result", "skipped").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.import.rows").tag("result", "upserted").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("factory.import.chunk").tag("mode", "job").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldProduceSameRowsAndErrorsInParallelAsSerially() {
+        StringBuilder csv = new StringBuilder("code,name,stockQuantity,unit\n");
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            String quantity = random.nextInt(50) == 0 ? "oops" : String.valueOf(random.nextInt(10_000));
+            csv.append("RM").append(random.nextInt(300)).append(",Material ").append(i).append(',')
+                    .append(quantity).append(",g\n");
+        }
+
+        List<RawMaterial> serialRows = new ArrayList<>();
+        List<RawMaterial> parallelRows = new ArrayList<>();
+        ImportProgress serialProgress = mock(ImportProgress.class);
+        ImportProgress parallelProgress = mock(ImportProgress.class);
+
+        newService(new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20, parsing(1), jobs()))
+                .readRows(stream(csv.toString()), serialProgress, serialRows::add);
+        newService(new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20, new ImportProperties.Parsing(8, 37), jobs()))
+                .readRows(stream(csv.toString()), parallelProgress, parallelRows::add);
+
+        assertThat(parallelRows).hasSameSizeAs(serialRows);
+        for (int i = 0; i < serialRows.size(); i++) {
+            assertThat(parallelRows.get(i).getCode()).isEqualTo(serialRows.get(i).getCode());
+            assertThat(parallelRows.get(i).getName()).isEqualTo(serialRows.get(i).getName());
+        }
+
+        ArgumentCaptor<String> serialErrors = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> parallelErrors = ArgumentCaptor.forClass(String.class);
+        verify(serialProgress, atLeastOnce()).skipped(serialErrors.capture());
+        verify(parallelProgress, atLeastOnce()).skipped(parallelErrors.capture());
+        assertThat(parallelErrors.getAllValues()).isEqualTo(serialErrors.getAllValues());
+    }
+
+    @Test
+    void shouldApplyRowsReadBeforeAMalformedLine() {
+        String csv = "code,name,stockQuantity,unit\nFL001,Flour,5000,g\nSG001,Sugar,3000,g\n" +
+                "EG001,Egg,12,un\n\"MK001,Milk,20,l\n";
+
+        for (int workers : new int[]{1, 4}) {
+            List<RawMaterial> rows = new ArrayList<>();
+            ImportProgress progress = mock(ImportProgress.class);
+
+            try {
+                newService(new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20, parsing(workers), jobs()))
+                        .readRows(stream(csv), progress, rows::add);
+            } catch (RuntimeException ignored) {
+                // the malformed line still fails the import; only the rows before it matter here
+            }
+
+            assertThat(rows).extracting(RawMaterial::getCode).containsExactly("FL001", "SG001", "EG001");
+        }
+    }
+
+    private ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private CsvImportService newService(int chunkSize) {
+        return newService(new ImportProperties(chunkSize, 10_000, 4096, 5_000_000, 1 << 20, parsing(4), jobs()));
+    }
+
+    private CsvImportService newService(ImportProperties properties) {
+        return new CsvImportService(repository, eventPublisher, jdbcRepository, properties,
+                TransactionOperations.withoutTransaction(), meterRegistry,
+                new StockRetry(new StockProperties(500, new StockProperties.Retry(3, Duration.ZERO)), meterRegistry),
+                parsers);
+    }
+
+    private ImportProperties.Parsing parsing(int workers) {
+        return new ImportProperties.Parsing(workers, 2);
+    }
+
+    private ImportProperties.Jobs jobs() {
+        return new ImportProperties.Jobs(1, 1, 100, Duration.ofHours(1));
+    }
+
     private MockMultipartFile mockFile(String content) {
         return new MockMultipartFile(
                 "file",
@@ -0,0 +1,275 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.QuantityOverflowException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GreedyOptimizerTest {
+
+    private final GreedyOptimizer optimizer = new GreedyOptimizer();
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 1234, 98765})
+    void shouldMatchBigDecimalImplementationOnRandomCatalogs(long seed) {
+        List<Product> products = randomProducts(new Random(seed));
+
+        ProductionSuggestionResponse expected = bigDecimalGreedy(products);
+        ProductionSuggestionResponse actual = optimizer.optimize(CompiledCatalog.compile(products));
+
+        assertThat(actual.suggestions()).isEqualTo(expected.suggestions());
+        assertThat(actual.totalValue()).isEqualByComparingTo(expected.totalValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {3, 11, 2024, 55555})
+    void shouldMatchFullRecomputeWhenStockIsPatchedIncrementally(long seed) {
+        Random random = new Random(seed);
+        List<Product> products = randomProducts(random);
+        CompiledCatalog catalog = CompiledCatalog.compile(products);
+        optimizer.optimize(catalog);
+
+        for (int round = 0; round < 50; round++) {
+            Map<Long, BigDecimal> patch = new HashMap<>();
+            int changed = 1 + random.nextInt(3);
+            for (int k = 0; k < changed; k++) {
+                patch.put(1L + random.nextInt(20), BigDecimal.valueOf(random.nextInt(100_000)));
+            }
+            catalog = catalog.withStock(patch).orElseThrow();
+
+            ProductionSuggestionResponse incremental = optimizer.optimize(catalog);
+            ProductionSuggestionResponse full = new GreedyOptimizer().optimize(catalog);
+
+            assertThat(incremental.suggestions()).isEqualTo(full.suggestions());
+            assertThat(incremental.totalValue()).isEqualByComparingTo(full.totalValue());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {5, 19, 777, 31337})
+    void shouldMatchRecompiledCatalogWhenEvaluatingScenarioOverlay(long seed) {
+        Random random = new Random(seed);
+        List<Product> products = randomProducts(random);
+        CompiledCatalog catalog = CompiledCatalog.compile(products);
+        ProductionSuggestionResponse before = optimizer.optimize(catalog);
+
+        for (int round = 0; round < 20; round++) {
+            Map<Integer, Long> stock = new HashMap<>();
+            for (int k = 0; k < 3; k++) {
+                int material = random.nextInt(catalog.materialCount());
+                stock.put(material, catalog.toScaled(BigDecimal.valueOf(random.nextInt(100_000))));
+            }
+            Map<Integer, BigDecimal> prices = new HashMap<>();
+            for (int k = 0; k < 5; k++) {
+                // an odd third decimal and a separate range per override rule out ties, whose order
+                // legitimately differs between an overlay and a fresh compile
+                long thousandths = 2L * (k * 600 + random.nextInt(600)) + 1;
+                prices.put(random.nextInt(catalog.productCount()), BigDecimal.valueOf(thousandths, 3));
+            }
+            CompiledCatalog overlay = catalog.withOverlay(stock, prices);
+
+            ProductionSuggestionResponse scenario = optimizer.optimizeScenario(overlay);
+            ProductionSuggestionResponse recompiled = optimizer.optimizeScenario(
+                    CompiledCatalog.compile(applied(products, catalog, stock, prices)));
+
+            assertThat(scenario.suggestions()).isEqualTo(recompiled.suggestions());
+            assertThat(scenario.totalValue()).isEqualByComparingTo(recompiled.totalValue());
+        }
+
+        assertThat(optimizer.optimize(catalog)).isEqualTo(before);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {2, 13, 99, 4096, 65537, 800_001})
+    void shouldMatchBigDecimalImplementationOnHugeQuantities(long seed) {
+        List<Product> products = randomProducts(new Random(seed), 18);
+        CompiledCatalog catalog = CompiledCatalog.compile(products);
+
+        ProductionSuggestionResponse expected = bigDecimalGreedy(products);
+        ProductionSuggestionResponse actual = new GreedyOptimizer().optimize(catalog);
+
+        assertThat(actual.suggestions()).isEqualTo(expected.suggestions());
+        assertThat(actual.totalValue()).isEqualByComparingTo(expected.totalValue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 1234, 98765})
+    void shouldAgreeWithCheckedPathWhenQuantitiesFitInLong(long seed) {
+        CompiledCatalog catalog = CompiledCatalog.compile(randomProducts(new Random(seed), 12));
+
+        assertThat(catalog.isWide()).isFalse();
+        assertThat(new GreedyOptimizer().optimize(catalog)).isEqualTo(catalog.toResponse(CheckedGreedy.plan(catalog)));
+    }
+
+    @Test
+    void shouldPlanMoreUnitsThanFitInAnInt() {
+        RawMaterial water = RawMaterial.builder().id(1L).stockQuantity(new BigDecimal("50000000000000")).build();
+        Product bottle = Product.builder()
+                .id(1L).code("B500").name("Bottle 500 ml").saleValue(new BigDecimal("0.10"))
+                .compositions(List.of(ProductComposition.builder().rawMaterial(water).requiredQuantity(new BigDecimal("500")).build()))
+                .build();
+
+        ProductionSuggestionResponse response = optimizer.optimize(CompiledCatalog.compile(List.of(bottle)));
+
+        assertThat(response.suggestions().getFirst().quantityToProduce()).isEqualTo(100_000_000_000L);
+        assertThat(response.totalValue()).isEqualByComparingTo("10000000000.00");
+    }
+
+    @Test
+    void shouldUseCheckedPathWhenScaledStockOverflowsLong() {
+        // 10^17 units of stock at the catalog's four decimal places is 10^21 once scaled
+        RawMaterial water = RawMaterial.builder().id(1L).stockQuantity(new BigDecimal("100000000000000000")).build();
+        RawMaterial dye = RawMaterial.builder().id(2L).stockQuantity(new BigDecimal("3.0000")).build();
+        Product tank = Product.builder()
+                .id(1L).code("T1").name("Tank").saleValue(new BigDecimal("2.00"))
+                .compositions(List.of(ProductComposition.builder().rawMaterial(water).requiredQuantity(new BigDecimal("10")).build()))
+                .build();
+        Product paint = Product.builder()
+                .id(2L).code("P1").name("Paint").saleValue(new BigDecimal("1.00"))
+                .compositions(List.of(ProductComposition.builder().rawMaterial(dye).requiredQuantity(new BigDecimal("0.0001")).build()))
+                .build();
+        CompiledCatalog catalog = CompiledCatalog.compile(List.of(tank, paint));
+
+        ProductionSuggestionResponse response = optimizer.optimize(catalog);
+
+        assertThat(catalog.isWide()).isTrue();
+        assertThat(catalog.withStock(Map.of(2L, BigDecimal.ONE))).isEmpty();
+        assertThat(response.suggestions()).extracting(ProductionSuggestionResponse.ProductionItem::quantityToProduce)
+                .containsExactly(10_000_000_000_000_000L, 30_000L);
+    }
+
+    @Test
+    void shouldRejectPlansBeyondLongRangeInsteadOfClamping() {
+        RawMaterial water = RawMaterial.builder().id(1L).stockQuantity(new BigDecimal("1E+20")).build();
+        Product drop = Product.builder()
+                .id(1L).code("D1").name("Drop").saleValue(new BigDecimal("0.01"))
+                .compositions(List.of(ProductComposition.builder().rawMaterial(water).requiredQuantity(BigDecimal.ONE).build()))
+                .build();
+
+        assertThatThrownBy(() -> optimizer.optimize(CompiledCatalog.compile(List.of(drop))))
+                .isInstanceOf(QuantityOverflowException.class)
+                .hasMessageContaining("D1");
+    }
+
+    private List<Product> randomProducts(Random random) {
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            materials.add(RawMaterial.builder()
+                    .id(id)
+                    .stockQuantity(randomQuantity(random, 100_000))
+                    .build());
+        }
+        return randomProducts(random, materials, BigDecimal.ZERO);
+    }
+
+    /**
+     * Stock spread over magnitudes up to 10^maxDigits; past roughly 10^15 the scaled values overflow
+     * a long. Required quantities start at 10 so that no product needs more than a long of units.
+     */
+    private List<Product> randomProducts(Random random, int maxDigits) {
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            materials.add(RawMaterial.builder()
+                    .id(id)
+                    .stockQuantity(BigDecimal.valueOf(Math.abs(random.nextLong()) % 1000, random.nextInt(4))
+                            .scaleByPowerOfTen(random.nextInt(maxDigits - 2)))
+                    .build());
+        }
+        return randomProducts(random, materials, BigDecimal.TEN);
+    }
+
+    private List<Product> randomProducts(Random random, List<RawMaterial> materials, BigDecimal minRequired) {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            List<ProductComposition> compositions = new ArrayList<>();
+            int fanOut = random.nextInt(5);
+            for (int k = 0; k < fanOut; k++) {
+                compositions.add(ProductComposition.builder()
+                        .rawMaterial(materials.get(random.nextInt(materials.size())))
+                        .requiredQuantity(random.nextInt(20) == 0 ? BigDecimal.ZERO : minRequired.add(randomQuantity(random, 500)))
+                        .build());
+            }
+            products.add(Product.builder()
+                    .id(id)
+                    .code("P" + id)
+                    .name("Product " + id)
+                    .saleValue(BigDecimal.valueOf(random.nextInt(50), 1).add(BigDecimal.ONE))
+                    .compositions(compositions)
+                    .build());
+        }
+        return products;
+    }
+
+    private List<Product> applied(List<Product> products, CompiledCatalog catalog,
+                                  Map<Integer, Long> stock, Map<Integer, BigDecimal> prices) {
+        Map<Long, RawMaterial> materials = new HashMap<>();
+        List<Product> copies = new ArrayList<>();
+        for (Product product : products) {
+            List<ProductComposition> compositions = product.getCompositions().stream()
+                    .map(c -> ProductComposition.builder()
+                            .rawMaterial(materials.computeIfAbsent(c.getRawMaterial().getId(), id -> RawMaterial.builder()
+                                    .id(id)
+                                    .stockQuantity(c.getRawMaterial().getStockQuantity())
+                                    .build()))
+                            .requiredQuantity(c.getRequiredQuantity())
+                            .build())
+                    .toList();
+            copies.add(Product.builder()
+                    .id(product.getId())
+                    .code(product.getCode())
+                    .name(product.getName())
+                    .saleValue(product.getSaleValue())
+                    .compositions(compositions)
+                    .build());
+        }
+
+        stock.forEach((m, scaled) -> materials.get(catalog.materialId(m)).setStockQuantity(catalog.toQuantity(scaled)));
+        prices.forEach((j, value) -> copies.stream()
+                .filter(p -> p.getId() == catalog.productId(j))
+                .forEach(p -> p.setSaleValue(value)));
+        return copies;
+    }
+
+    private BigDecimal randomQuantity(Random random, int bound) {
+        return BigDecimal.valueOf(random.nextInt(bound * 1000), random.nextInt(4));
+    }
+
+    private ProductionSuggestionResponse bigDecimalGreedy(List<Product> products) {
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        products.forEach(p -> p.getCompositions().forEach(c ->
+                stock.putIfAbsent(c.getRawMaterial().getId(), c.getRawMaterial().getStockQuantity())));
+
+        List<ProductionSuggestionResponse.ProductionItem> items = new ArrayList<>();
+        BigDecimal totalValue = BigDecimal.ZERO;
+
+        for (Product product : products.stream()
+                .sorted(Comparator.comparing(Product::getSaleValue).reversed())
+                .toList()) {
+            long maxUnits = product.getCompositions().stream()
+                    .mapToLong(c -> c.getRequiredQuantity().signum() == 0 ? 0 : stock.get(c.getRawMaterial().getId())
+                            .divideToIntegralValue(c.getRequiredQuantity()).longValueExact())
+                    .min()
+                    .orElse(0);
+
+            if (maxUnits > 0) {
+                product.getCompositions().forEach(c -> stock.merge(c.getRawMaterial().getId(),
+                        c.getRequiredQuantity().multiply(BigDecimal.valueOf(maxUnits)).negate(), BigDecimal::add));
+
+                BigDecimal itemTotal = product.getSaleValue().multiply(BigDecimal.valueOf(maxUnits));
+                items.add(new ProductionSuggestionResponse.ProductionItem(
+                        product.getCode(), product.getName(), maxUnits, product.getSaleValue(), itemTotal));
+                totalValue = totalValue.add(itemTotal);
+            }
+        }
+        return new ProductionSuggestionResponse(items, totalValue);
+    }
+}
@@ -0,0 +1,164 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.dto.ImportJobResponse;
+import com.projedata.factory.api.exception.ImportCapacityExceededException;
+import com.projedata.factory.api.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private CsvImportService csvImportService;
+
+    private ImportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldRunJobInBackgroundAndReportProgress() throws Exception {
+        service = newService(1, 1);
+        doAnswer(invocation -> {
+            InputStream input = invocation.getArgument(0);
+            ImportProgress progress = invocation.getArgument(1);
+            input.readAllBytes();
+            progress.imported();
+            progress.imported();
+            progress.skipped("Line 3: Invalid stock quantity: 'x'");
+            progress.chunkCommitted(2);
+            return null;
+        }).when(csvImportService).importRawMaterialsInChunks(any(), any());
+
+        ImportJobResponse submitted = service.submit(mockFile());
+        ImportJobResponse finished = awaitFinished(submitted.id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(finished.rowsProcessed()).isEqualTo(3);
+        assertThat(finished.recordsImported()).isEqualTo(2);
+        assertThat(finished.recordsSkipped()).isEqualTo(1);
+        assertThat(finished.recordsCommitted()).isEqualTo(2);
+        assertThat(finished.errors()).containsExactly("Line 3: Invalid stock quantity: 'x'");
+        assertThat(finished.etaSeconds()).isZero();
+    }
+
+    @Test
+    void shouldMarkJobAsFailedWhenImportThrows() throws Exception {
+        service = newService(1, 1);
+        doAnswer(invocation -> {
+            throw new IllegalStateException("database down");
+        }).when(csvImportService).importRawMaterialsInChunks(any(), any());
+
+        ImportJobResponse finished = awaitFinished(service.submit(mockFile()).id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(finished.failure()).isEqualTo("database down");
+    }
+
+    @Test
+    void shouldRejectSubmissionWhenWorkersAndQueueAreFull() throws Exception {
+        service = newService(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(csvImportService).importRawMaterialsInChunks(any(), any());
+
+        ImportJobResponse running = service.submit(mockFile());
+        ImportJobResponse queued = service.submit(mockFile());
+
+        MultipartFile rejected = mock(MultipartFile.class);
+        assertThatThrownBy(() -> service.submit(rejected))
+                .isInstanceOf(ImportCapacityExceededException.class);
+        verify(rejected, never()).transferTo(any(Path.class));
+
+        release.countDown();
+        assertThat(awaitFinished(running.id()).status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(awaitFinished(queued.id()).status()).isEqualTo(ImportJobStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldMarkJobAsFailedWhenTheImportReportsAFormatFailure() throws Exception {
+        service = newService(1, 1);
+        doAnswer(invocation -> {
+            ImportProgress progress = invocation.getArgument(1);
+            progress.imported();
+            progress.failed("Invalid CSV format: unterminated quote");
+            return null;
+        }).when(csvImportService).importRawMaterialsInChunks(any(), any());
+
+        ImportJobResponse finished = awaitFinished(service.submit(mockFile()).id());
+
+        assertThat(finished.status()).isEqualTo(ImportJobStatus.FAILED);
+        assertThat(finished.failure()).isEqualTo("Invalid CSV format: unterminated quote");
+        assertThat(finished.recordsImported()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReleaseTheReservedSlotWhenSpoolingFails() throws Exception {
+        service = newService(1, 0);
+        MultipartFile broken = mock(MultipartFile.class);
+        doThrow(new IOException("disk full")).when(broken).transferTo(any(Path.class));
+
+        assertThatThrownBy(() -> service.submit(broken))
+                .hasMessageContaining("disk full");
+
+        assertThat(awaitFinished(service.submit(mockFile()).id()).status()).isEqualTo(ImportJobStatus.COMPLETED);
+    }
+
+    @Test
+    void shouldThrowWhenJobIsUnknown() {
+        service = newService(1, 1);
+
+        assertThatThrownBy(() -> service.find(UUID.randomUUID()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private ImportJobService newService(int maxConcurrent, int queueDepth) {
+        ImportProperties properties = new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20,
+                new ImportProperties.Parsing(1, 500),
+                new ImportProperties.Jobs(maxConcurrent, queueDepth, 100, Duration.ofHours(1)));
+        return new ImportJobService(csvImportService, properties);
+    }
+
+    private ImportJobResponse awaitFinished(UUID id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ImportJobResponse job = service.find(id);
+        while (job.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = service.find(id);
+        }
+        return job;
+    }
+
+    private MockMultipartFile mockFile() {
+        return new MockMultipartFile("file", "test.csv", "text/csv",
+                "code,name,stockQuantity,unit\nFL001,Flour,5000,g\n".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,149 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PortfolioOptimizerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PortfolioOptimizer optimizer = portfolio(Duration.ofMillis(500));
+
+    @AfterEach
+    void tearDown() {
+        optimizer.shutdown();
+    }
+
+    @Test
+    void shouldBeatValueOrderWhenCheaperProductsUseScarceStockBetter() {
+        RawMaterial steel = buildMaterial(1L, new BigDecimal("10"));
+        Product frame = buildProduct(1L, new BigDecimal("12.00"), List.of(buildComposition(steel, new BigDecimal("6"))));
+        Product bracket = buildProduct(2L, new BigDecimal("10.00"), List.of(buildComposition(steel, new BigDecimal("5"))));
+
+        ProductionSuggestionResponse response = optimizer.optimize(CompiledCatalog.compile(List.of(frame, bracket)));
+
+        assertThat(response.totalValue()).isEqualByComparingTo(new BigDecimal("20.00"));
+        assertThat(response.strategy()).isNotEqualTo(PortfolioOptimizer.VALUE);
+        assertThat(meterRegistry.get("factory.optimize.portfolio.wins").tag("heuristic", response.strategy())
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReportValueOrderWhenNothingBeatsIt() {
+        RawMaterial flour = buildMaterial(1L, new BigDecimal("1000"));
+        Product bread = buildProduct(1L, new BigDecimal("5.00"), List.of(buildComposition(flour, new BigDecimal("100"))));
+
+        ProductionSuggestionResponse response = optimizer.optimize(CompiledCatalog.compile(List.of(bread)));
+
+        assertThat(response.totalValue()).isEqualByComparingTo(new BigDecimal("50.00"));
+        assertThat(response.strategy()).isEqualTo(PortfolioOptimizer.VALUE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 1234})
+    void shouldReturnFeasiblePlansNeverWorseThanGreedy(long seed) {
+        List<Product> products = randomProducts(new Random(seed));
+        CompiledCatalog catalog = CompiledCatalog.compile(products);
+
+        ProductionSuggestionResponse response = optimizer.optimize(catalog);
+
+        assertThat(response.totalValue()).isGreaterThanOrEqualTo(new GreedyOptimizer().optimize(catalog).totalValue());
+        assertFeasible(products, response);
+    }
+
+    @Test
+    void shouldStillAnswerWithValueOrderWhenTheBudgetIsSpent() {
+        optimizer.shutdown();
+        optimizer = portfolio(Duration.ZERO);
+        CompiledCatalog catalog = CompiledCatalog.compile(randomProducts(new Random(3)));
+
+        ProductionSuggestionResponse response = optimizer.optimize(catalog);
+
+        assertThat(response.totalValue()).isGreaterThanOrEqualTo(new GreedyOptimizer().optimize(catalog).totalValue());
+        assertThat(response.strategy()).isNotNull();
+    }
+
+    private PortfolioOptimizer portfolio(Duration timeBudget) {
+        return new PortfolioOptimizer(new OptimizerProperties(
+                new OptimizerProperties.Exact(Duration.ofSeconds(2), 100_000),
+                new OptimizerProperties.Scenarios(0, 100),
+                new OptimizerProperties.Portfolio(timeBudget, 2, 16),
+                new OptimizerProperties.PlanCache(Duration.ofSeconds(30)),
+                new OptimizerProperties.Schedule(104)), meterRegistry);
+    }
+
+    private void assertFeasible(List<Product> products, ProductionSuggestionResponse response) {
+        Map<String, Product> byCode = new HashMap<>();
+        products.forEach(p -> byCode.put(p.getCode(), p));
+
+        Map<Long, BigDecimal> used = new HashMap<>();
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        response.suggestions().forEach(item -> byCode.get(item.productCode()).getCompositions().forEach(c -> {
+            stock.put(c.getRawMaterial().getId(), c.getRawMaterial().getStockQuantity());
+            used.merge(c.getRawMaterial().getId(),
+                    c.getRequiredQuantity().multiply(BigDecimal.valueOf(item.quantityToProduce())), BigDecimal::add);
+        }));
+        used.forEach((id, quantity) -> assertThat(quantity).isLessThanOrEqualTo(stock.get(id)));
+    }
+
+    private List<Product> randomProducts(Random random) {
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= 15; id++) {
+            materials.add(buildMaterial(id, BigDecimal.valueOf(random.nextInt(5_000))));
+        }
+
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 150; id++) {
+            List<ProductComposition> compositions = new ArrayList<>();
+            int first = random.nextInt(materials.size());
+            for (int k = 0; k < 1 + random.nextInt(3); k++) {
+                compositions.add(buildComposition(materials.get((first + k) % materials.size()),
+                        BigDecimal.valueOf(1 + random.nextInt(300))));
+            }
+            products.add(buildProduct(id, BigDecimal.valueOf(100 + random.nextInt(5_000), 2), compositions));
+        }
+        return products;
+    }
+
+    private RawMaterial buildMaterial(Long id, BigDecimal stock) {
+        return RawMaterial.builder()
+                .id(id)
+                .code("RM" + id)
+                .stockQuantity(stock)
+                .build();
+    }
+
+    private Product buildProduct(Long id, BigDecimal value, List<ProductComposition> compositions) {
+        return Product.builder()
+                .id(id)
+                .code("P" + id)
+                .name("Product " + id)
+                .saleValue(value)
+                .compositions(compositions)
+                .build();
+    }
+
+    private ProductComposition buildComposition(RawMaterial material, BigDecimal quantity) {
+        return ProductComposition.builder()
+                .rawMaterial(material)
+                .requiredQuantity(quantity)
+                .build();
+    }
+}
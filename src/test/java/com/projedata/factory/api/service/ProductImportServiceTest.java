@@ -0,0 +1,172 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.ImportProperties;
+import com.projedata.factory.api.dto.CsvImportResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.repository.ProductJdbcRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.json.JsonMapper;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductJdbcRepository productJdbcRepository;
+
+    @Mock
+    private RawMaterialJdbcRepository rawMaterialJdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductImportService service;
+
+    @BeforeEach
+    void setUp() {
+        TransactionOperations transactionOperations = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        };
+        ImportProperties properties = new ImportProperties(1000, 10_000, 4096, 5_000_000, 1 << 20,
+                new ImportProperties.Parsing(1, 500), new ImportProperties.Jobs(1, 1, 100, Duration.ofHours(1)));
+
+        service = new ProductImportService(productJdbcRepository, rawMaterialJdbcRepository,
+                JsonMapper.builder().build(), properties, transactionOperations, eventPublisher,
+                new SimpleMeterRegistry());
+
+        when(rawMaterialJdbcRepository.findAllIdsByCode()).thenReturn(Map.of("RM001", 1L, "RM002", 2L));
+    }
+
+    @Test
+    void shouldGroupConsecutiveCsvRowsIntoOneProduct() {
+        when(productJdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of("PRD002", 20L));
+        doAnswer(invocation -> {
+            List<Product> inserted = invocation.getArgument(0);
+            inserted.forEach(product -> product.setId(10L));
+            return null;
+        }).when(productJdbcRepository).batchInsert(anyList());
+
+        CsvImportResponse response = service.importProducts(stream("""
+                productCode,productName,saleValue,rawMaterialCode,requiredQuantity
+                PRD001,Cadeira,150.00,RM001,4
+                PRD001,Cadeira,150.00,RM002,0.5
+                PRD002,Mesa,300.00,RM002,2
+                """), ExportFormat.CSV, null);
+
+        assertThat(response.recordsImported()).isEqualTo(2);
+        assertThat(response.errors()).isEmpty();
+
+        List<Product> written = captureCompositionWrite();
+        assertThat(written).extracting(Product::getCode, Product::getId)
+                .containsExactly(tuple("PRD001", 10L), tuple("PRD002", 20L));
+        assertThat(written.getFirst().getCompositions())
+                .extracting(c -> c.getRawMaterial().getId(), ProductComposition::getRequiredQuantity)
+                .containsExactly(tuple(1L, new BigDecimal("4")), tuple(2L, new BigDecimal("0.5")));
+        assertThat(written.get(1).getCompositions()).hasSize(1);
+
+        verify(productJdbcRepository).batchUpdate(argThat(products -> products.size() == 1));
+        verify(productJdbcRepository).batchInsert(argThat(products -> products.size() == 1));
+        verify(eventPublisher).publishEvent(new CatalogChangedEvent("2 products imported"));
+    }
+
+    @Test
+    void shouldSkipWholeProductWhenAnyRowIsInvalid() {
+        when(productJdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of());
+
+        CsvImportResponse response = service.importProducts(stream("""
+                productCode,productName,saleValue,rawMaterialCode,requiredQuantity
+                PRD001,Cadeira,150.00,RM001,4
+                PRD001,Cadeira,150.00,RM404,1
+                PRD001,Cadeira,150.00,RM002,0
+                PRD002,Mesa,300.00,RM001,2
+                """), ExportFormat.CSV, null);
+
+        assertThat(response.recordsImported()).isEqualTo(1);
+        assertThat(response.recordsSkipped()).isEqualTo(1);
+        assertThat(response.errors()).containsExactly(
+                "Line 3: Raw material code 'RM404' not found",
+                "Line 4: required quantity must be >= 0.01");
+        assertThat(captureCompositionWrite()).extracting(Product::getCode).containsExactly("PRD002");
+    }
+
+    @Test
+    void shouldImportNdjsonDocumentsInChunks() {
+        when(productJdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of("PRD001", 10L));
+
+        CsvImportResponse response = service.importProducts(stream("""
+                {"code":"PRD001","name":"Cadeira","saleValue":150.00,"compositions":[{"rawMaterialCode":"RM001","requiredQuantity":4}]}
+                {"code":"PRD002","name":"","saleValue":300.00}
+                not json
+                {"code":"PRD001","name":"Cadeira","saleValue":160.00,"compositions":[{"rawMaterialCode":"RM002","requiredQuantity":1}]}
+                """), ExportFormat.NDJSON, 1);
+
+        assertThat(response.recordsImported()).isEqualTo(2);
+        assertThat(response.recordsSkipped()).isEqualTo(2);
+        assertThat(response.errors()).hasSize(2)
+                .first().isEqualTo("Line 2: Product name is required");
+        assertThat(response.errors().get(1)).startsWith("Line 3: Invalid JSON");
+
+        verify(productJdbcRepository, times(2)).replaceCompositions(anyList());
+        verify(eventPublisher, times(2)).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void shouldRejectProductsWithoutCompositions() {
+        CsvImportResponse csv = service.importProducts(stream("""
+                productCode,productName,saleValue,rawMaterialCode,requiredQuantity
+                PRD001,Cadeira,150.00,,
+                PRD001,Cadeira,150.00,,
+                """), ExportFormat.CSV, null);
+
+        assertThat(csv.recordsImported()).isZero();
+        assertThat(csv.errors()).containsExactly("Line 2: At least one composition is required");
+
+        CsvImportResponse ndjson = service.importProducts(stream("""
+                {"code":"PRD002","name":"Mesa","saleValue":300.00}
+                {"code":"PRD003","name":"Banco","saleValue":80.00,"compositions":[]}
+                """), ExportFormat.NDJSON, null);
+
+        assertThat(ndjson.recordsImported()).isZero();
+        assertThat(ndjson.errors()).containsExactly(
+                "Line 1: At least one composition is required",
+                "Line 2: At least one composition is required");
+        verify(productJdbcRepository, never()).replaceCompositions(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Product> captureCompositionWrite() {
+        ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
+        verify(productJdbcRepository).replaceCompositions(captor.capture());
+        return captor.getValue();
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,175 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.PaginationProperties;
+import com.projedata.factory.api.dto.PageResponse;
+import com.projedata.factory.api.dto.ProductCompositionRequest;
+import com.projedata.factory.api.dto.ProductRequest;
+import com.projedata.factory.api.dto.ProductResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.ResourceNotFoundException;
+import com.projedata.factory.api.repository.ProductCompositionRepository;
+import com.projedata.factory.api.repository.ProductCompositionRow;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.RawMaterialRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialRepository rawMaterialRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductCompositionRepository compositionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductService(productRepository, rawMaterialRepository, eventPublisher,
+                compositionRepository, new PaginationProperties(2, 3), entityManager);
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMoreRowsExist() {
+        when(productRepository.findPageAfter(10L, Limit.of(3)))
+                .thenReturn(List.of(product(11L), product(12L), product(13L)));
+
+        PageResponse<ProductResponse> page = service.findPage(10L, null, false);
+
+        assertThat(page.items()).extracting(ProductResponse::id).containsExactly(11L, 12L);
+        assertThat(page.items()).allSatisfy(p -> assertThat(p.compositions()).isNull());
+        assertThat(page.nextCursor()).isEqualTo(12L);
+        verifyNoInteractions(compositionRepository);
+    }
+
+    @Test
+    void shouldCapPageSizeAndEndWithoutCursor() {
+        when(productRepository.findPageAfter(0L, Limit.of(4))).thenReturn(List.of(product(1L)));
+
+        PageResponse<ProductResponse> page = service.findPage(null, 1_000, false);
+
+        assertThat(page.items()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldLoadCompositionsForThePageWhenExpanded() {
+        when(productRepository.findPageAfter(0L, Limit.of(3))).thenReturn(List.of(product(1L), product(2L)));
+        when(compositionRepository.findRowsByProductIds(List.of(1L, 2L))).thenReturn(List.of(
+                new ProductCompositionRow(1L, 7L, "FL001", "Flour", new BigDecimal("100"), "g"),
+                new ProductCompositionRow(1L, 8L, "SG001", "Sugar", new BigDecimal("20"), "g")));
+
+        PageResponse<ProductResponse> page = service.findPage(null, null, true);
+
+        assertThat(page.items().get(0).compositions())
+                .extracting(ProductResponse.Composition::rawMaterialCode)
+                .containsExactly("FL001", "SG001");
+        assertThat(page.items().get(1).compositions()).isEmpty();
+    }
+
+    @Test
+    void shouldReportEveryMissingRawMaterialInOneLookup() {
+        when(rawMaterialRepository.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(material(2L)));
+
+        ProductRequest request = new ProductRequest("BRD001", "Bread", new BigDecimal("5.00"), List.of(
+                new ProductCompositionRequest(1L, BigDecimal.ONE),
+                new ProductCompositionRequest(2L, BigDecimal.ONE),
+                new ProductCompositionRequest(3L, BigDecimal.ONE)));
+
+        assertThatThrownBy(() -> service.create(request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("RawMaterial not found with ids [1, 3]");
+        verify(rawMaterialRepository, never()).findById(anyLong());
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldOnlyTouchChangedCompositionsOnUpdate() {
+        Product bread = Product.builder().id(1L).code("BRD001").name("Bread").saleValue(new BigDecimal("5.00"))
+                .compositions(new ArrayList<>()).build();
+        ProductComposition flour = composition(bread, material(1L), "100");
+        ProductComposition sugar = composition(bread, material(2L), "20");
+        ProductComposition salt = composition(bread, material(3L), "1");
+        bread.getCompositions().addAll(List.of(flour, sugar, salt));
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+        when(rawMaterialRepository.findAllById(Set.of(1L, 2L, 4L)))
+                .thenReturn(List.of(material(1L), material(2L), material(4L)));
+        when(productRepository.save(bread)).thenReturn(bread);
+
+        service.update(1L, new ProductRequest("BRD001", "Bread", new BigDecimal("5.00"), List.of(
+                new ProductCompositionRequest(1L, new BigDecimal("100.00")),
+                new ProductCompositionRequest(2L, new BigDecimal("25")),
+                new ProductCompositionRequest(4L, new BigDecimal("3")))));
+
+        assertThat(bread.getCompositions()).hasSize(3).startsWith(flour, sugar).doesNotContain(salt);
+        assertThat(flour.getRequiredQuantity()).isEqualTo("100");
+        assertThat(sugar.getRequiredQuantity()).isEqualTo("25");
+        assertThat(bread.getCompositions().get(2).getId()).isNull();
+        assertThat(bread.getCompositions().get(2).getRawMaterial().getId()).isEqualTo(4L);
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void shouldSkipSaveAndSnapshotRebuildWhenUpdateChangesNothing() {
+        Product bread = Product.builder().id(1L).code("BRD001").name("Bread").saleValue(new BigDecimal("5.00"))
+                .compositions(new ArrayList<>()).build();
+        bread.getCompositions().add(composition(bread, material(1L), "100"));
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(bread));
+        when(rawMaterialRepository.findAllById(Set.of(1L))).thenReturn(List.of(material(1L)));
+
+        service.update(1L, new ProductRequest("BRD001", "Bread", new BigDecimal("5.0"), List.of(
+                new ProductCompositionRequest(1L, new BigDecimal("100.000")))));
+
+        verify(productRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private RawMaterial material(long id) {
+        return RawMaterial.builder().id(id).code("RM" + id).build();
+    }
+
+    private ProductComposition composition(Product product, RawMaterial material, String quantity) {
+        return ProductComposition.builder()
+                .id(material.getId() * 10)
+                .product(product)
+                .rawMaterial(material)
+                .requiredQuantity(new BigDecimal(quantity))
+                .build();
+    }
+
+    private ProductResponse product(long id) {
+        return new ProductResponse(id, "P" + id, "Product " + id, new BigDecimal("10.00"));
+    }
+}
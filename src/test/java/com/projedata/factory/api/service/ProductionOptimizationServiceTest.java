@@ -1,20 +1,33 @@
 package com.projedata.factory.api.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionPlanDiffResponse;
 import com.projedata.factory.api.dto.ProductionSuggestionResponse;
 import com.projedata.factory.api.entity.Product;
 import com.projedata.factory.api.entity.ProductComposition;
 import com.projedata.factory.api.entity.RawMaterial;
 import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.StockLevel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.Mockito.when;
 
@@ -24,9 +37,27 @@ class ProductionOptimizationServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private GreedyOptimizer greedyOptimizer;
+
+    private BomSnapshotCache snapshotCache;
+
     private ProductionOptimizationService service;
 
+    @BeforeEach
+    void setUp() {
+        greedyOptimizer = new GreedyOptimizer();
+        snapshotCache = new BomSnapshotCache(productRepository, meterRegistry);
+        service = service(Duration.ofSeconds(30), greedyOptimizer,
+                new BranchAndBoundOptimizer(properties(Duration.ofSeconds(30))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
     @Test
     void shouldSuggestProductWithHighestValue(){
         RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
@@ -46,6 +77,26 @@ class ProductionOptimizationServiceTest {
         assertThat(response.suggestions()).hasSize(2);
     }
 
+    @Test
+    void shouldTimeEachOptimizationPhase() {
+        RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
+        Product bread = buildProduct(1L, "Bread", new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(bread));
+
+        service.optimize();
+        service.optimize();
+
+        assertThat(meterRegistry.get("factory.optimize").tag("strategy", "greedy").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.optimize.phase").tag("phase", "snapshot").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.optimize.phase").tag("phase", "solve").timer().count()).isEqualTo(1);
+        assertThat(cacheCount("miss")).isEqualTo(1);
+        assertThat(cacheCount("hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.bom.snapshot.rebuild").tag("phase", "query").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("factory.bom.snapshot.rebuild").tag("phase", "compile").timer().count()).isEqualTo(1);
+    }
+
     @Test
     void shouldReturnEmptyWhenNoStock(){
         RawMaterial flour = buildMaterial(1L, "Flour", BigDecimal.ZERO);
@@ -68,12 +119,187 @@ class ProductionOptimizationServiceTest {
                 buildComposition(flour, new BigDecimal("200"))
         ));
 
-        Map<Long, BigDecimal> stock = Map.of(1L, new BigDecimal("500"));
+        CompiledCatalog catalog = CompiledCatalog.compile(List.of(bread));
 
-        int result = service.calculateMaxProducible(bread, new HashMap<>(stock));
+        long result = catalog.maxProducible(0, catalog.stockCopy());
         assertThat(result).isEqualTo(2);
     }
 
+    @Test
+    void shouldBeatGreedyWhenHighestValueProductWastesSharedMaterial(){
+        RawMaterial steel = buildMaterial(1L, "Steel", new BigDecimal("10"));
+
+        Product frame = buildProduct(1L, "Frame", new BigDecimal("12.00"), List.of(
+                buildComposition(steel, new BigDecimal("6"))
+        ));
+
+        Product bracket = buildProduct(2L, "Bracket", new BigDecimal("10.00"), List.of(
+                buildComposition(steel, new BigDecimal("5"))
+        ));
+
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(frame, bracket));
+
+        assertThat(service.optimize(OptimizationStrategy.GREEDY).totalValue())
+                .isEqualByComparingTo(new BigDecimal("12.00"));
+
+        ProductionSuggestionResponse exact = service.optimize(OptimizationStrategy.EXACT);
+        assertThat(exact.totalValue()).isEqualByComparingTo(new BigDecimal("20.00"));
+        assertThat(exact.suggestions()).singleElement()
+                .satisfies(item -> assertThat(item.quantityToProduce()).isEqualTo(2));
+    }
+
+    @Test
+    void shouldDiffPlanAgainstPreviousSnapshotVersion(){
+        RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
+        RawMaterial sugar = buildMaterial(2L, "Sugar", new BigDecimal("50"));
+
+        Product cake = buildProduct(1L, "Cake", new BigDecimal("20.00"), List.of(
+                buildComposition(flour, new BigDecimal("300")),
+                buildComposition(sugar, new BigDecimal("100"))
+        ));
+        cake.setCode("CAKE");
+        Product bread = buildProduct(2L, "Bread", new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+        bread.setCode("BREAD");
+
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(cake, bread));
+
+        ProductionSuggestionResponse before = service.optimize();
+        assertThat(before.totalValue()).isEqualByComparingTo(new BigDecimal("50.00"));
+        long fromVersion = snapshotCache.get().version();
+
+        snapshotCache.onStockChanged(new StockChangedEvent(Map.of(2L, new StockLevel(new BigDecimal("200"), 1))));
+        ProductionPlanDiffResponse diff = service.diff(OptimizationStrategy.GREEDY, null);
+
+        assertThat(diff.fromVersion()).isEqualTo(fromVersion);
+        assertThat(diff.toVersion()).isGreaterThan(fromVersion);
+        assertThat(diff.previousTotalValue()).isEqualByComparingTo(new BigDecimal("50.00"));
+        assertThat(diff.totalValue()).isEqualByComparingTo(new BigDecimal("60.00"));
+        assertThat(diff.changes()).containsExactly(
+                new ProductionPlanDiffResponse.ItemChange("CAKE", "Cake", 0, 2, new BigDecimal("20.00")),
+                new ProductionPlanDiffResponse.ItemChange("BREAD", "Bread", 10, 4, new BigDecimal("5.00")));
+
+        assertThat(service.diff(OptimizationStrategy.GREEDY, fromVersion).changes()).hasSize(2);
+        assertThat(service.diff(OptimizationStrategy.GREEDY, diff.toVersion()).changes()).isEmpty();
+    }
+
+    @Test
+    void shouldServeStalePlanWhileRefreshingInBackground() throws InterruptedException {
+        RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
+        Product bread = buildProduct(1L, "Bread", new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(bread));
+
+        ProductionPlan before = service.plan(OptimizationStrategy.GREEDY);
+        snapshotCache.onStockChanged(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("2000"), 1))));
+
+        assertThat(service.plan(OptimizationStrategy.GREEDY)).isSameAs(before);
+        assertThat(cacheCount("stale")).isEqualTo(1);
+
+        ProductionPlan after = awaitVersionAfter(before.version());
+        assertThat(after.response().totalValue()).isEqualByComparingTo(new BigDecimal("100.00"));
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+    }
+
+    @Test
+    void shouldWaitForFreshPlanWhenStalePlansAreNotAllowed() {
+        service.shutdown();
+        service = service(Duration.ZERO, greedyOptimizer);
+        RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
+        Product bread = buildProduct(1L, "Bread", new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(bread));
+
+        ProductionPlan before = service.plan(OptimizationStrategy.GREEDY);
+        snapshotCache.invalidate();
+        ProductionPlan after = service.plan(OptimizationStrategy.GREEDY);
+
+        assertThat(after.version()).isGreaterThan(before.version());
+        assertThat(cacheCount("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldShareOneComputationBetweenConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger solves = new AtomicInteger();
+        ProductionOptimizer blocking = new ProductionOptimizer() {
+            @Override
+            public OptimizationStrategy strategy() {
+                return OptimizationStrategy.GREEDY;
+            }
+
+            @Override
+            public ProductionSuggestionResponse optimize(CompiledCatalog catalog) {
+                solves.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return greedyOptimizer.optimize(catalog);
+            }
+        };
+        service.shutdown();
+        service = service(Duration.ofSeconds(30), blocking);
+        RawMaterial flour = buildMaterial(1L, "Flour", new BigDecimal("1000"));
+        Product bread = buildProduct(1L, "Bread", new BigDecimal("5.00"), List.of(
+                buildComposition(flour, new BigDecimal("100"))
+        ));
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(bread));
+
+        int callers = 8;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ProductionPlan>> plans = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                plans.add(executor.submit(() -> service.plan(OptimizationStrategy.GREEDY)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cacheCount("coalesced") < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            release.countDown();
+
+            ProductionPlan first = plans.getFirst().get();
+            for (Future<ProductionPlan> plan : plans) {
+                assertThat(plan.get()).isSameAs(first);
+            }
+        }
+
+        assertThat(solves).hasValue(1);
+        assertThat(cacheCount("miss")).isEqualTo(1);
+        assertThat(cacheCount("coalesced")).isEqualTo(callers - 1);
+    }
+
+    private ProductionOptimizationService service(Duration maxStale, ProductionOptimizer... optimizers) {
+        return new ProductionOptimizationService(snapshotCache, List.of(optimizers), properties(maxStale), meterRegistry);
+    }
+
+    private OptimizerProperties properties(Duration maxStale) {
+        return new OptimizerProperties(new OptimizerProperties.Exact(Duration.ofSeconds(2), 100_000),
+                new OptimizerProperties.Scenarios(0, 100),
+                new OptimizerProperties.Portfolio(Duration.ofMillis(200), 0, 32),
+                new OptimizerProperties.PlanCache(maxStale),
+                new OptimizerProperties.Schedule(104));
+    }
+
+    private double cacheCount(String result) {
+        Counter counter = meterRegistry.find("factory.optimize.plan.cache").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private ProductionPlan awaitVersionAfter(long version) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ProductionPlan plan = service.plan(OptimizationStrategy.GREEDY);
+        while (plan.version() <= version && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            plan = service.plan(OptimizationStrategy.GREEDY);
+        }
+        return plan;
+    }
+
     private RawMaterial buildMaterial(Long id, String name, BigDecimal stock){
 
         return RawMaterial.builder()
@@ -0,0 +1,167 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ScenarioRequest;
+import com.projedata.factory.api.dto.ScenarioRequest.PriceOverride;
+import com.projedata.factory.api.dto.ScenarioRequest.Scenario;
+import com.projedata.factory.api.dto.ScenarioRequest.StockOverride;
+import com.projedata.factory.api.dto.ScenarioResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.InvalidScenarioException;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductionScenarioServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialJdbcRepository rawMaterialJdbcRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductionScenarioService service;
+
+    @BeforeEach
+    void setUp() {
+        OptimizerProperties properties = new OptimizerProperties(
+                new OptimizerProperties.Exact(Duration.ofSeconds(2), 100_000), new OptimizerProperties.Scenarios(4, 3),
+                new OptimizerProperties.Portfolio(Duration.ofMillis(200), 0, 32),
+                new OptimizerProperties.PlanCache(Duration.ofSeconds(30)),
+                new OptimizerProperties.Schedule(104));
+        service = new ProductionScenarioService(new BomSnapshotCache(productRepository, meterRegistry),
+                List.of(new GreedyOptimizer(), new BranchAndBoundOptimizer(properties)),
+                rawMaterialJdbcRepository, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldEvaluateEachScenarioAgainstTheSameBaseline() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findIdsByCodes(Set.of("FLOUR"))).thenReturn(Map.of("FLOUR", 1L));
+
+        ScenarioResponse response = service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("more flour", List.of(new StockOverride(null, "FLOUR", null, new BigDecimal("200"))), null),
+                new Scenario("bread premium", null, List.of(new PriceOverride(null, "BREAD", null, new BigDecimal("400")))),
+                new Scenario(null, null, null))));
+
+        assertThat(response.baseline().totalValue()).isEqualByComparingTo("65.00");
+        assertThat(response.scenarios()).extracting(ScenarioResponse.Result::name)
+                .containsExactly("more flour", "bread premium", "scenario 3");
+        assertThat(response.scenarios()).extracting(result -> result.plan().totalValue())
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("80.00"), new BigDecimal("250.00"), new BigDecimal("65.00"));
+        assertThat(response.scenarios()).extracting(ScenarioResponse.Result::totalValueChange)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("15.00"), new BigDecimal("185.00"), BigDecimal.ZERO);
+        assertThat(meterRegistry.get("factory.optimize.scenarios").tag("strategy", "greedy").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSolveScenariosWithTheExactOptimizer() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+
+        ScenarioResponse response = service.evaluate(OptimizationStrategy.EXACT, new ScenarioRequest(List.of(
+                new Scenario("short", List.of(new StockOverride(1L, null, new BigDecimal("250"), null)), null))));
+
+        assertThat(response.scenarios().getFirst().plan().totalValue()).isEqualByComparingTo("10.00");
+        assertThat(response.scenarios().getFirst().totalValueChange()).isEqualByComparingTo("-55.00");
+    }
+
+    @Test
+    void shouldRejectStockThatWouldGoNegative() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("shortage", List.of(new StockOverride(1L, null, null, new BigDecimal("-1001"))), null)))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("shortage")
+                .hasMessageContaining("negative");
+    }
+
+    @Test
+    void shouldReportOverflowSeparatelyFromExtraDecimalPlaces() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("flood", List.of(new StockOverride(1L, null, null, new BigDecimal(Long.MAX_VALUE))), null)))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("out of range")
+                .hasMessageNotContaining("decimal places");
+
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("precise", List.of(new StockOverride(1L, null, null, new BigDecimal("0.0000001"))), null)))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("decimal places");
+    }
+
+    @Test
+    void shouldRejectUnknownProductsAndAmbiguousOverrides() {
+        givenBakery();
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("typo", null, List.of(new PriceOverride(null, "BRED", new BigDecimal("6.00"), null)))))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("BRED");
+
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY, new ScenarioRequest(List.of(
+                new Scenario("both", null, List.of(new PriceOverride(1L, null, new BigDecimal("6.00"), BigDecimal.TEN)))))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("either saleValue or changePercent");
+    }
+
+    @Test
+    void shouldLimitScenariosPerRequest() {
+        assertThatThrownBy(() -> service.evaluate(OptimizationStrategy.GREEDY,
+                new ScenarioRequest(Collections.nCopies(4, new Scenario(null, null, null)))))
+                .isInstanceOf(InvalidScenarioException.class)
+                .hasMessageContaining("At most 3");
+    }
+
+    private void givenBakery() {
+        RawMaterial flour = RawMaterial.builder().id(1L).code("FLOUR").stockQuantity(new BigDecimal("1000")).build();
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(
+                product(1L, "BREAD", "5.00", flour, "100"),
+                product(2L, "CAKE", "20.00", flour, "300")));
+    }
+
+    private Product product(Long id, String code, String value, RawMaterial material, String required) {
+        return Product.builder()
+                .id(id)
+                .code(code)
+                .name(code)
+                .saleValue(new BigDecimal(value))
+                .compositions(List.of(ProductComposition.builder()
+                        .rawMaterial(material)
+                        .requiredQuantity(new BigDecimal(required))
+                        .build()))
+                .build();
+    }
+}
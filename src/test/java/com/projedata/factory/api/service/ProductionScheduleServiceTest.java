@@ -0,0 +1,181 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.OptimizerProperties;
+import com.projedata.factory.api.dto.ProductionSuggestionResponse;
+import com.projedata.factory.api.dto.ScheduleRequest;
+import com.projedata.factory.api.dto.ScheduleRequest.Period;
+import com.projedata.factory.api.dto.ScheduleRequest.Receipt;
+import com.projedata.factory.api.dto.ScheduleResponse;
+import com.projedata.factory.api.entity.Product;
+import com.projedata.factory.api.entity.ProductComposition;
+import com.projedata.factory.api.entity.RawMaterial;
+import com.projedata.factory.api.exception.InvalidScheduleException;
+import com.projedata.factory.api.repository.ProductRepository;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductionScheduleServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RawMaterialJdbcRepository rawMaterialJdbcRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProductionScheduleService service;
+
+    @BeforeEach
+    void setUp() {
+        OptimizerProperties properties = new OptimizerProperties(
+                new OptimizerProperties.Exact(Duration.ofSeconds(2), 100_000), new OptimizerProperties.Scenarios(0, 100),
+                new OptimizerProperties.Portfolio(Duration.ofMillis(200), 0, 32),
+                new OptimizerProperties.PlanCache(Duration.ofSeconds(30)), new OptimizerProperties.Schedule(3));
+        service = new ProductionScheduleService(new BomSnapshotCache(productRepository, meterRegistry),
+                List.of(new GreedyOptimizer(), new BranchAndBoundOptimizer(properties)),
+                rawMaterialJdbcRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void shouldHoldStockForProductsWhoseMaterialsArriveLater() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findIdsByCodes(Set.of("SUGAR"))).thenReturn(Map.of("SUGAR", 2L));
+
+        ScheduleResponse response = service.schedule(OptimizationStrategy.GREEDY, new ScheduleRequest(List.of(
+                new Period("week 1", null),
+                new Period("week 2", List.of(new Receipt(null, "SUGAR", new BigDecimal("200")))),
+                new Period(null, null))));
+
+        // making bread with all the flour in week 1 would stop at 50.00
+        assertThat(response.total().totalValue()).isEqualByComparingTo("60.00");
+        assertThat(response.periods()).extracting(ScheduleResponse.Period::name)
+                .containsExactly("week 1", "week 2", "period 3");
+        assertThat(response.periods()).extracting(period -> period.plan().totalValue())
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("20.00"), new BigDecimal("40.00"), BigDecimal.ZERO);
+        assertThat(response.periods().getFirst().plan().suggestions()).singleElement()
+                .satisfies(item -> assertThat(item.quantityToProduce()).isEqualTo(4));
+        assertThat(meterRegistry.get("factory.optimize.schedule").tag("strategy", "greedy").timer().count()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 42, 1234})
+    void shouldScheduleTheWholeHorizonPlanWithoutOverdrawingAnyPeriod(long seed) {
+        Random random = new Random(seed);
+        List<RawMaterial> materials = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            materials.add(RawMaterial.builder().id(id).code("RM" + id)
+                    .stockQuantity(BigDecimal.valueOf(random.nextInt(1_000))).build());
+        }
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            List<ProductComposition> compositions = new ArrayList<>();
+            int first = random.nextInt(materials.size());
+            for (int k = 0; k < 1 + random.nextInt(3); k++) {
+                compositions.add(ProductComposition.builder().rawMaterial(materials.get((first + k) % materials.size()))
+                        .requiredQuantity(BigDecimal.valueOf(1 + random.nextInt(100))).build());
+            }
+            products.add(Product.builder().id(id).code("P" + id).name("P" + id)
+                    .saleValue(BigDecimal.valueOf(100 + random.nextInt(5_000), 2)).compositions(compositions).build());
+        }
+        when(productRepository.findAllWithCompositions()).thenReturn(products);
+        when(rawMaterialJdbcRepository.findIdsByCodes(anyCollection())).thenReturn(Map.of());
+        when(rawMaterialJdbcRepository.findExistingIds(anyCollection())).thenAnswer(call -> new HashSet<>(call.getArgument(0)));
+
+        List<Period> periods = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            List<Receipt> receipts = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                receipts.add(new Receipt(1L + random.nextInt(materials.size()), null, BigDecimal.valueOf(random.nextInt(2_000))));
+            }
+            periods.add(new Period(null, receipts));
+        }
+
+        ScheduleResponse response = service.schedule(OptimizationStrategy.GREEDY, new ScheduleRequest(periods));
+
+        Map<String, Long> scheduled = new HashMap<>();
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        materials.forEach(m -> stock.put(m.getId(), m.getStockQuantity()));
+        Map<String, Product> byCode = new HashMap<>();
+        products.forEach(p -> byCode.put(p.getCode(), p));
+        for (int t = 0; t < periods.size(); t++) {
+            periods.get(t).receipts().forEach(r -> stock.merge(r.rawMaterialId(), r.quantity(), BigDecimal::add));
+            for (ProductionSuggestionResponse.ProductionItem item : response.periods().get(t).plan().suggestions()) {
+                scheduled.merge(item.productCode(), item.quantityToProduce(), Long::sum);
+                byCode.get(item.productCode()).getCompositions().forEach(c -> stock.merge(c.getRawMaterial().getId(),
+                        c.getRequiredQuantity().multiply(BigDecimal.valueOf(item.quantityToProduce())).negate(), BigDecimal::add));
+            }
+            stock.values().forEach(quantity -> assertThat(quantity).isNotNegative());
+        }
+
+        Map<String, Long> total = new HashMap<>();
+        response.total().suggestions().forEach(item -> total.put(item.productCode(), item.quantityToProduce()));
+        assertThat(scheduled).isEqualTo(total);
+    }
+
+    @Test
+    void shouldRejectUnknownMaterialsAndExtraDecimals() {
+        givenBakery();
+        when(rawMaterialJdbcRepository.findExistingIds(Set.of(9L))).thenReturn(Set.of());
+        assertThatThrownBy(() -> service.schedule(OptimizationStrategy.GREEDY, new ScheduleRequest(List.of(
+                new Period("week 1", List.of(new Receipt(9L, null, BigDecimal.ONE)))))))
+                .isInstanceOf(InvalidScheduleException.class)
+                .hasMessageContaining("week 1")
+                .hasMessageContaining("raw material 9 not found");
+
+        when(rawMaterialJdbcRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+        assertThatThrownBy(() -> service.schedule(OptimizationStrategy.GREEDY, new ScheduleRequest(List.of(
+                new Period(null, List.of(new Receipt(1L, null, new BigDecimal("0.5"))))))))
+                .isInstanceOf(InvalidScheduleException.class)
+                .hasMessageContaining("at most 0 decimal places");
+    }
+
+    @Test
+    void shouldLimitPeriodsPerRequest() {
+        assertThatThrownBy(() -> service.schedule(OptimizationStrategy.GREEDY,
+                new ScheduleRequest(Collections.nCopies(4, new Period(null, null)))))
+                .isInstanceOf(InvalidScheduleException.class)
+                .hasMessageContaining("At most 3");
+    }
+
+    private void givenBakery() {
+        RawMaterial flour = RawMaterial.builder().id(1L).code("FLOUR").stockQuantity(new BigDecimal("1000")).build();
+        RawMaterial sugar = RawMaterial.builder().id(2L).code("SUGAR").stockQuantity(BigDecimal.ZERO).build();
+        when(productRepository.findAllWithCompositions()).thenReturn(List.of(
+                Product.builder().id(1L).code("BREAD").name("BREAD").saleValue(new BigDecimal("5.00"))
+                        .compositions(List.of(composition(flour, "100"))).build(),
+                Product.builder().id(2L).code("CAKE").name("CAKE").saleValue(new BigDecimal("20.00"))
+                        .compositions(List.of(composition(flour, "300"), composition(sugar, "100"))).build()));
+    }
+
+    private ProductComposition composition(RawMaterial material, String required) {
+        return ProductComposition.builder()
+                .rawMaterial(material)
+                .requiredQuantity(new BigDecimal(required))
+                .build();
+    }
+}
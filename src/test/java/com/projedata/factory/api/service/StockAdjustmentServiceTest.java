@@ -0,0 +1,116 @@
+package com.projedata.factory.api.service;
+
+import com.projedata.factory.api.config.StockProperties;
+import com.projedata.factory.api.dto.StockAdjustmentRequest;
+import com.projedata.factory.api.dto.StockAdjustmentRequest.Adjustment;
+import com.projedata.factory.api.dto.StockAdjustmentResponse;
+import com.projedata.factory.api.repository.RawMaterialJdbcRepository;
+import com.projedata.factory.api.repository.StockLevel;
+import com.projedata.factory.api.repository.StockDelta;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockAdjustmentServiceTest {
+
+    @Mock
+    private RawMaterialJdbcRepository jdbcRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+
+    private StockAdjustmentService service;
+
+    @BeforeEach
+    void setUp() {
+        TransactionOperations transactionOperations = new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(transaction);
+            }
+        };
+        StockProperties properties = new StockProperties(500, new StockProperties.Retry(3, Duration.ZERO));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new StockAdjustmentService(jdbcRepository, eventPublisher, transactionOperations,
+                properties, meterRegistry, new StockRetry(properties, meterRegistry));
+    }
+
+    @Test
+    void shouldApplyValidDeltasAndReportTheRest() {
+        when(jdbcRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L, 2L));
+        when(jdbcRepository.findIdsByCodes(Set.of("RM404"))).thenReturn(Map.of());
+        when(jdbcRepository.addStock(anyList(), eq(true), eq(500))).thenReturn(new int[]{1, 0});
+        when(jdbcRepository.findStockByIds(Set.of(1L))).thenReturn(Map.of(1L, new StockLevel(new BigDecimal("120"), 1)));
+
+        StockAdjustmentResponse response = service.adjust(new StockAdjustmentRequest(List.of(
+                new Adjustment(1L, null, new BigDecimal("20")),
+                new Adjustment(null, "RM404", BigDecimal.ONE),
+                new Adjustment(2L, null, new BigDecimal("-50"))
+        ), false, false));
+
+        assertThat(response.applied()).isEqualTo(1);
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(response.rolledBack()).isFalse();
+        assertThat(response.errors()).containsExactly(
+                "Entry 2: raw material code RM404 not found",
+                "Entry 3: insufficient stock for raw material 2");
+
+        verify(jdbcRepository).addStock(List.of(
+                new StockDelta(1L, new BigDecimal("20")),
+                new StockDelta(2L, new BigDecimal("-50"))), true, 500);
+        verify(eventPublisher).publishEvent(new StockChangedEvent(Map.of(1L, new StockLevel(new BigDecimal("120"), 1))));
+        assertThat(transaction.isRollbackOnly()).isFalse();
+    }
+
+    @Test
+    void shouldNotWriteAtomicBatchWithUnknownMaterials() {
+        when(jdbcRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of());
+        when(jdbcRepository.findIdsByCodes(Set.of())).thenReturn(Map.of());
+
+        StockAdjustmentResponse response = service.adjust(new StockAdjustmentRequest(List.of(
+                new Adjustment(1L, null, BigDecimal.TEN)
+        ), true, false));
+
+        assertThat(response.rolledBack()).isTrue();
+        assertThat(response.applied()).isZero();
+        verify(jdbcRepository, never()).addStock(anyList(), anyBoolean(), anyInt());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRollBackAtomicBatchWhenStockWouldGoNegative() {
+        when(jdbcRepository.findExistingIds(Set.of())).thenReturn(Set.of());
+        when(jdbcRepository.findIdsByCodes(Set.of("RM001", "RM002"))).thenReturn(Map.of("RM001", 1L, "RM002", 2L));
+        when(jdbcRepository.addStock(anyList(), eq(true), eq(500))).thenReturn(new int[]{1, 0});
+
+        StockAdjustmentResponse response = service.adjust(new StockAdjustmentRequest(List.of(
+                new Adjustment(null, "RM001", new BigDecimal("-5")),
+                new Adjustment(null, "RM002", new BigDecimal("-500"))
+        ), true, false));
+
+        assertThat(response.rolledBack()).isTrue();
+        assertThat(response.applied()).isZero();
+        assertThat(response.rejected()).isEqualTo(2);
+        assertThat(transaction.isRollbackOnly()).isTrue();
+        verifyNoInteractions(eventPublisher);
+    }
+}